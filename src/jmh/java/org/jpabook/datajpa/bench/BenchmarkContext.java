@@ -0,0 +1,77 @@
+package org.jpabook.datajpa.bench;
+
+import org.jpabook.datajpa.DataJpaApplication;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against a private in-memory H2 database and seeds it with
+ * {@code rows} members spread over {@code rows / 10} teams. Outbox capture and relay and the
+ * team stats maintenance are off, so the benchmarks measure the repository work alone.
+ */
+public final class BenchmarkContext {
+
+    private static final int CHUNK = 1_000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(int rows, String... properties) {
+        return start(rows, WebApplicationType.NONE, properties);
+    }
+
+    public static ConfigurableApplicationContext start(int rows, WebApplicationType type, String... properties) {
+        ConfigurableApplicationContext context = boot(type, properties);
+        seed(context.getBean(MemberRepository.class), rows);
+        return context;
+    }
+
+    /**
+     * Boots without seeding; later {@code properties} override the defaults.
+     */
+    public static ConfigurableApplicationContext boot(WebApplicationType type, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--decorator.datasource.enabled=false",
+                "--data-jpa.seed.enabled=false",
+                "--data-jpa.outbox.enabled=false",
+                "--data-jpa.outbox.relay-enabled=false",
+                "--data-jpa.team-stats.enabled=false",
+                "--data-jpa.team-stats.rebuild-cron=-",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(type)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static void seed(MemberRepository memberRepository, int rows) {
+        int teamCount = Math.max(1, rows / 10);
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            teams.add(new Team("team" + i));
+        }
+        List<Member> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < rows; i++) {
+            Member member = new Member("member" + i, i % 100);
+            member.setTeam(teams.get(i % teamCount));
+            chunk.add(member);
+            if (chunk.size() == CHUNK) {
+                memberRepository.saveAllBatched(chunk, CHUNK);
+                chunk.clear();
+            }
+        }
+        memberRepository.saveAllBatched(chunk, CHUNK);
+    }
+}
@@ -0,0 +1,100 @@
+package org.jpabook.datajpa.bench;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load test for {@code GET /members/{id}}: each client sends its next request as soon as
+ * the previous one completes. Compare thread models by running it twice, on Java 21 for virtual threads:
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="platform 1000,5000"
+ * ./gradlew loadTest -PloadTestJava=21 -PloadTestArgs="virtual 1000,5000"
+ * </pre>
+ */
+public class MemberLoadTest {
+
+    private static final int ROWS = 10_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        int[] clientCounts = Arrays.stream((args.length > 1 ? args[1] : "1000,5000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        ConfigurableApplicationContext context = BenchmarkContext.start(ROWS, WebApplicationType.SERVLET,
+                "server.port=0",
+                "server.tomcat.accept-count=10000",
+                "server.tomcat.max-connections=20000",
+                "spring.threads.virtual.enabled=" + "virtual".equals(mode));
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            for (int clients : clientCounts) {
+                run(client, "http://localhost:" + port, mode, clients);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void run(HttpClient client, String baseUrl, String mode, int clients) {
+        int total = clients * REQUESTS_PER_CLIENT;
+        long[] latencies = new long[total];
+        AtomicInteger index = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            loops[i] = loop(client, baseUrl, REQUESTS_PER_CLIENT, latencies, index, failures);
+        }
+        CompletableFuture.allOf(loops).join();
+        long elapsed = System.nanoTime() - start;
+
+        int completed = index.get();
+        long[] sorted = Arrays.copyOf(latencies, completed);
+        Arrays.sort(sorted);
+        System.out.printf("%s threads, %d clients: %.0f req/s, p50 %d ms, p99 %d ms, %d failed%n",
+                mode, clients, completed / (elapsed / 1_000_000_000.0),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), failures.get());
+    }
+
+    private static CompletableFuture<Void> loop(HttpClient client, String baseUrl, int remaining,
+                                                long[] latencies, AtomicInteger index, AtomicInteger failures) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long id = ThreadLocalRandom.current().nextLong(1, ROWS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/members/" + id)).build();
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    latencies[index.getAndIncrement()] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, baseUrl, remaining - 1, latencies, index, failures));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * sorted.length))] / 1_000_000;
+    }
+}
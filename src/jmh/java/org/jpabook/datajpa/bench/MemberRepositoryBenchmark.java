@@ -0,0 +1,107 @@
+package org.jpabook.datajpa.bench;
+
+import org.jpabook.datajpa.dto.MemberDto;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberJpaRepository;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Repository hot paths, Spring Data {@link MemberRepository} next to the pure JPA {@link MemberJpaRepository}.
+ * Run with {@code ./gradlew jmh -PjmhRows=1000,100000}; allocation rates come from the gc profiler.
+ * Every call runs in its own transaction; bulk updates are rolled back to keep the dataset stable.
+ */
+@State(Scope.Benchmark)
+public class MemberRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int AGE = 42;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate tx;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private int nextPage() {
+        page = (page + 1) % Math.max(1, rows / 100 / PAGE_SIZE);
+        return page;
+    }
+
+    @Benchmark
+    public List<Member> springDataFindMemberFetchJoin() {
+        return tx.execute(status -> memberRepository.findMemberFetchJoin());
+    }
+
+    @Benchmark
+    public List<Member> springDataFindAllEntityGraph() {
+        return tx.execute(status -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public List<Member> jpaFindAll() {
+        return tx.execute(status -> memberJpaRepository.findAll());
+    }
+
+    @Benchmark
+    public List<MemberDto> springDataFindMemberDto() {
+        return tx.execute(status -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public Page<Member> springDataFindByAge() {
+        PageRequest pageRequest = PageRequest.of(nextPage(), PAGE_SIZE, Sort.by(Sort.Direction.DESC, "username"));
+        return tx.execute(status -> memberRepository.findByAge(AGE, pageRequest));
+    }
+
+    @Benchmark
+    public List<Member> jpaFindByPage() {
+        int offset = nextPage() * PAGE_SIZE;
+        return tx.execute(status -> memberJpaRepository.findByPage(AGE, offset, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Integer springDataBulkAgePlus() {
+        return tx.execute(status -> {
+            status.setRollbackOnly();
+            return memberRepository.bulkAgePlus(AGE);
+        });
+    }
+
+    @Benchmark
+    public Integer jpaBulkAgePlus() {
+        return tx.execute(status -> {
+            status.setRollbackOnly();
+            return memberJpaRepository.bulkAgePlus(AGE);
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package org.jpabook.datajpa.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberJpaRepository;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mixed repository traffic (derived, {@code @Query}, JPQL and IN-list lookups of 1 to 64 ids) with
+ * Hibernate's query plan cache hit/miss counts reported per iteration next to throughput. Compare
+ * the padding and criteria plan cache settings:
+ * {@code ./gradlew jmh -PjmhIncludes=PlanCacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+public class PlanCacheBenchmark {
+
+    private static final int MAX_IN_SIZE = 64;
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean tuned;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate tx;
+    private Statistics statistics;
+    private List<Long> ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PlanCache {
+
+        public long hits;
+        public long misses;
+
+        private long baseHits;
+        private long baseMisses;
+
+        @Setup(Level.Iteration)
+        public void reset(PlanCacheBenchmark benchmark) {
+            baseHits = benchmark.statistics.getQueryPlanCacheHitCount();
+            baseMisses = benchmark.statistics.getQueryPlanCacheMissCount();
+            hits = 0;
+            misses = 0;
+        }
+
+        void update(Statistics statistics) {
+            hits = statistics.getQueryPlanCacheHitCount() - baseHits;
+            misses = statistics.getQueryPlanCacheMissCount() - baseMisses;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows,
+                "spring.jpa.properties.hibernate.query.in_clause_parameter_padding=" + tuned,
+                "spring.jpa.properties.hibernate.criteria.plan_cache_enabled=" + tuned,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        ids = tx.execute(status -> memberRepository.findMemberCustom().stream().map(Member::getId).toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> mixed(PlanCache planCache) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int age = random.nextInt(100);
+        List<Member> result = tx.execute(status -> switch (random.nextInt(4)) {
+            case 0 -> memberRepository.findUser("member" + random.nextInt(rows), age);
+            case 1 -> memberRepository.findByUsernameAndAgeGreaterThan("member" + random.nextInt(rows), age);
+            case 2 -> memberJpaRepository.findByPage(age, 0, 20);
+            default -> memberRepository.findAllByIdIn(randomIds(random));
+        });
+        planCache.update(statistics);
+        return result;
+    }
+
+    private List<Long> randomIds(ThreadLocalRandom random) {
+        int size = 1 + random.nextInt(MAX_IN_SIZE);
+        List<Long> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ids.get(random.nextInt(ids.size())));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package org.jpabook.datajpa.bench;
+
+import org.jpabook.datajpa.dto.MemberDto;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Loads all {@code rows} members per operation as managed entities, as read-only entities
+ * and as DTOs. Compare {@code gc.alloc.rate.norm} (bytes per operation) across the three to see
+ * what dirty-checking snapshots cost per 10k rows:
+ * {@code ./gradlew jmh -PjmhIncludes=ReadOnlyLoadBenchmark}.
+ */
+@State(Scope.Benchmark)
+public class ReadOnlyLoadBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(rows,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        memberRepository = context.getBean(MemberRepository.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> managedEntities() {
+        return readWrite.execute(status -> memberRepository.findMemberCustom());
+    }
+
+    @Benchmark
+    public List<Member> readOnlyEntities() {
+        return readOnly.execute(status -> memberRepository.findMemberCustom());
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoProjection() {
+        return readOnly.execute(status -> {
+            try (Stream<MemberDto> stream = memberRepository.streamMemberDto(1000)) {
+                return stream.toList();
+            }
+        });
+    }
+}
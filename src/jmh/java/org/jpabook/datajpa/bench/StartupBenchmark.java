@@ -0,0 +1,75 @@
+package org.jpabook.datajpa.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from {@code SpringApplication.run} to the first successful {@code GET /members}, for the
+ * default profile (schema recreated, eager repositories) against the startup-optimized prod profile
+ * (schema validated, deferred repositories, background EntityManagerFactory):
+ * {@code ./gradlew jmh -PjmhIncludes=StartupBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createSchema() {
+        // prod only validates, so the in-memory database needs the schema before the first run
+        BenchmarkContext.boot(WebApplicationType.NONE).close();
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        context = BenchmarkContext.boot(WebApplicationType.SERVLET,
+                "spring.profiles.active=" + profile,
+                "server.port=0");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/members")).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int status;
+        do {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } while (status != 200 && System.nanoTime() < deadline);
+        if (status != 200) {
+            throw new IllegalStateException("GET /members returned " + status);
+        }
+        return status;
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        context.close();
+    }
+}
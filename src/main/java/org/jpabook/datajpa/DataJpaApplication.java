@@ -1,16 +1,23 @@
 package org.jpabook.datajpa;
 
+import org.jpabook.datajpa.support.AuditClock;
+import org.jpabook.datajpa.support.CachingAuditorAware;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @SpringBootApplication
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@EnableAsync
+@EnableScheduling
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
@@ -19,6 +26,11 @@ public class DataJpaApplication {
 
 	@Bean
 	public AuditorAware<String> auditorAware() {
-		return () -> Optional.of(UUID.randomUUID().toString());
+		return new CachingAuditorAware(() -> UUID.randomUUID().toString());
+	}
+
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider(AuditClock auditClock) {
+		return () -> Optional.of(auditClock.now());
 	}
 }
@@ -0,0 +1,93 @@
+package org.jpabook.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.jpabook.datajpa.support.ReadYourWritesFilter;
+import org.jpabook.datajpa.support.ReplicaRoutingDataSource;
+import org.jpabook.datajpa.support.RoutingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "data-jpa.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private final RoutingProperties routingProperties;
+    private final ObjectProvider<ReplicaRoutingDataSource> routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties) {
+        List<DataSource> replicas = routingProperties.getReplicas().stream()
+                .map(replica -> (DataSource) replica(replica, primaryDataSource, properties))
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                routingProperties.getSelection(), routingProperties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Ahead of every other filter, so the client's last write is known before anything touches the database.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(routingProperties.getReadYourWritesWindow()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Hibernate otherwise holds the first connection until the session closes, which under
+     * open-in-view pins the whole request to the data source its first transaction was routed to.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Scheduled(fixedDelayString = "${data-jpa.routing.probe-interval-ms:5000}")
+    public void probeReplicas() {
+        routingDataSource.ifAvailable(ReplicaRoutingDataSource::probe);
+    }
+
+    private HikariDataSource replica(RoutingProperties.Replica replica, HikariDataSource primary,
+                                     DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.getUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.getPassword());
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setMaximumPoolSize(primary.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
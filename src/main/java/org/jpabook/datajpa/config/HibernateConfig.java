@@ -0,0 +1,58 @@
+package org.jpabook.datajpa.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.jpabook.datajpa.repository.PageCountInvalidator;
+import org.jpabook.datajpa.repository.PageCounts;
+import org.jpabook.datajpa.support.AuditClock;
+import org.jpabook.datajpa.support.AuditClockInterceptor;
+import org.jpabook.datajpa.support.AuditFlushListener;
+import org.jpabook.datajpa.support.EventListenerIntegrator;
+import org.jpabook.datajpa.support.QueryCountInspector;
+import org.jpabook.datajpa.support.TeamStatsMaintainer;
+import org.jpabook.datajpa.support.TeamStatsProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.List;
+
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(ObjectProvider<PageCounts> pageCounts) {
+        List<StatementInspector> inspectors = List.of(
+                new QueryCountInspector(),
+                new PageCountInvalidator(pageCounts::getObject));
+
+        StatementInspector chain = sql -> {
+            for (StatementInspector inspector : inspectors) {
+                sql = inspector.inspect(sql);
+            }
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, chain);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer interceptorCustomizer(AuditClock auditClock) {
+        return properties -> properties.put(AvailableSettings.INTERCEPTOR, new AuditClockInterceptor(auditClock));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer eventListenerCustomizer(ObjectProvider<AuditFlushListener> auditFlushListener,
+                                                                 ObjectProvider<TeamStatsMaintainer> teamStats,
+                                                                 TeamStatsProperties teamStatsProperties) {
+        EventListenerIntegrator integrator = new EventListenerIntegrator(
+                SingletonSupplier.of(auditFlushListener::getObject),
+                SingletonSupplier.of(teamStats::getObject),
+                teamStatsProperties.isEnabled());
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+}
@@ -0,0 +1,42 @@
+package org.jpabook.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts sample members in the background once the application has started, so seeding never
+ * delays readiness. Enabled with {@code data-jpa.seed.enabled=true}; the prod profile turns it off.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "data-jpa.seed", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SeedDataRunner implements ApplicationRunner {
+
+    private final MemberRepository memberRepository;
+
+    @Value("${data-jpa.seed.count:100}")
+    private int count;
+
+    @Async
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("user" + i, i));
+        }
+        int saved = memberRepository.saveAllBatched(members, 100);
+        log.info("seeded {} members", saved);
+    }
+}
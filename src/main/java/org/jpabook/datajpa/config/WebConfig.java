@@ -0,0 +1,44 @@
+package org.jpabook.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.jpabook.datajpa.support.AdmissionProperties;
+import org.jpabook.datajpa.support.ConnectionAdmissionFilter;
+import org.jpabook.datajpa.support.QueryBudgetInterceptor;
+import org.jpabook.datajpa.support.RoutingProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryBudgetInterceptor);
+    }
+
+    /**
+     * Off by default until permits are sized from load measurements. Without explicit permits, every
+     * pool that serves requests counts: the primary plus, with routing on, one pool per replica.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "data-jpa.admission", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ConnectionAdmissionFilter> connectionAdmissionFilter(
+            AdmissionProperties properties, RoutingProperties routing, MeterRegistry meterRegistry,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        int pools = routing.isEnabled() ? 1 + routing.getReplicas().size() : 1;
+        int permits = properties.getPermits() > 0 ? properties.getPermits() : poolSize * pools;
+        FilterRegistrationBean<ConnectionAdmissionFilter> registration = new FilterRegistrationBean<>(
+                new ConnectionAdmissionFilter(permits, properties.getTimeout().toNanos(), meterRegistry));
+        registration.addUrlPatterns("/members", "/members/*", "/members2/*");
+        return registration;
+    }
+}
@@ -1,32 +1,55 @@
 package org.jpabook.datajpa.controller;
 
-import jakarta.annotation.PostConstruct;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.jpabook.datajpa.dto.CursorResponse;
+import org.jpabook.datajpa.dto.MemberDto;
 import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.repository.MemberField;
 import org.jpabook.datajpa.repository.MemberRepository;
+import org.jpabook.datajpa.repository.TeamRepository;
+import org.jpabook.datajpa.support.OptimisticRetry;
+import org.jpabook.datajpa.support.StreamProperties;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
-    private final MemberRepository memberRepository;
+    private static final int MAX_SCROLL_SIZE = 2000;
 
-    @PostConstruct
-    public void init() {
-        for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user"+ i, i));
-        }
-    }
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final OptimisticRetry optimisticRetry;
+    private final ObjectMapper objectMapper;
+    private final StreamProperties streamProperties;
 
+    /**
+     * Loads the entity rather than projecting the username, so repeated lookups come from the second-level cache.
+     */
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        return memberRepository.findById(id).get().getUsername();
+        return memberRepository.findById(id).map(Member::getUsername).orElseThrow();
     }
 
 
@@ -36,8 +59,104 @@ public class MemberController {
     }
 
     @GetMapping("/members")
-    public Page<Member> list(@PageableDefault(size = 5) Pageable pageable) {
-        return memberRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<?> list(@RequestParam(value = "fields", required = false) String fields,
+                        @PageableDefault(size = 5) Pageable pageable) {
+        Set<MemberField> selected;
+        try {
+            MemberField.validateSort(pageable.getSort());
+            if (fields == null) {
+                return memberRepository.findPage(pageable);
+            }
+            selected = MemberField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return memberRepository.findPageFields(selected, pageable);
+    }
+
+    @GetMapping("/members/dto")
+    @Transactional(readOnly = true)
+    public Page<MemberDto> listDto(@PageableDefault(size = 5) Pageable pageable) {
+        return memberRepository.findMemberDtoPage(pageable);
+    }
+
+    @PutMapping("/members/{id}/team")
+    public MemberDto changeTeam(@PathVariable("id") Long id, @RequestParam("teamId") Long teamId) {
+        return optimisticRetry.execute("changeTeam", () -> {
+            Member member = memberRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "member " + id));
+            Team team = teamRepository.findById(teamId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "team " + teamId));
+            member.changeTeam(team);
+            return new MemberDto(member.getId(), member.getUsername(), team.getName());
+        });
+    }
+
+    @GetMapping(value = "/members", params = "after")
+    @Transactional(readOnly = true)
+    public CursorResponse<Member> scroll(@RequestParam("after") String after,
+                                         @RequestParam(value = "order", defaultValue = MemberCursor.BY_ID) String order,
+                                         @RequestParam(value = "size", defaultValue = "5") int size) {
+        MemberCursor cursor = after.isEmpty() ? MemberCursor.first(order) : MemberCursor.decode(after);
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_SCROLL_SIZE)));
+
+        Window<Member> window = memberRepository.findAllBy(cursor.getPosition(), cursor.getSort(), limit);
+
+        String next = window.hasNext() && !window.isEmpty()
+                ? MemberCursor.encode(cursor.getOrder(), window.positionAt(window.size() - 1))
+                : null;
+        return new CursorResponse<>(window.getContent(), next);
     }
 
+    @GetMapping("/members/export")
+    @Transactional(readOnly = true)
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported format: " + format);
+        }
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+
+        int fetchSize = streamProperties.getFetchSize();
+        PrintWriter writer = response.getWriter();
+        if (csv) {
+            writer.print("id,username,teamName\n");
+        }
+        try (Stream<MemberDto> members = memberRepository.streamMemberDto(fetchSize)) {
+            int[] rows = {0};
+            members.forEach(dto -> {
+                writer.print(csv ? csvLine(dto) : jsonLine(dto));
+                if (++rows[0] % fetchSize == 0) {
+                    writer.flush();
+                }
+            });
+        }
+        writer.flush();
+    }
+
+    private String jsonLine(MemberDto dto) {
+        try {
+            return objectMapper.writeValueAsString(dto) + "\n";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String csvLine(MemberDto dto) {
+        return dto.getId() + "," + csvValue(dto.getUsername()) + "," + csvValue(dto.getTeamName()) + "\n";
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
 }
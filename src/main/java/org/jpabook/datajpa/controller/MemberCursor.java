@@ -0,0 +1,93 @@
+package org.jpabook.datajpa.controller;
+
+import lombok.Getter;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keyset cursor for /members?after=...
+ * Clients only see an opaque token wrapping the sort order and the keys of the last row.
+ */
+@Getter
+public class MemberCursor {
+
+    public static final String BY_ID = "id";
+    public static final String BY_USERNAME = "username";
+
+    private static final String SEPARATOR = "\n";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String ABSENT = "0";
+    private static final String PRESENT = "1";
+
+    private final String order;
+    private final ScrollPosition position;
+
+    private MemberCursor(String order, ScrollPosition position) {
+        this.order = order;
+        this.position = position;
+    }
+
+    public static MemberCursor first(String order) {
+        if (!BY_ID.equals(order) && !BY_USERNAME.equals(order)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unsupported order: " + order);
+        }
+        return new MemberCursor(order, ScrollPosition.keyset());
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (BY_ID.equals(parts[0]) && parts.length == 2) {
+                return new MemberCursor(BY_ID, ScrollPosition.forward(Map.of("id", Long.valueOf(parts[1]))));
+            }
+            if (BY_USERNAME.equals(parts[0]) && parts.length == 3) {
+                Map<String, Object> keys = new LinkedHashMap<>();
+                keys.put("username", decodeUsername(parts[2]));
+                keys.put("id", Long.valueOf(parts[1]));
+                return new MemberCursor(BY_USERNAME, ScrollPosition.forward(keys));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+    }
+
+    /**
+     * The username is Base64-encoded inside the token behind a presence flag, so any character in it,
+     * the separator included, survives the round trip, and a null username stays null.
+     */
+    public static String encode(String order, ScrollPosition position) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        String raw = order + SEPARATOR + keys.get("id");
+        if (BY_USERNAME.equals(order)) {
+            Object username = keys.get("username");
+            raw += SEPARATOR + (username == null
+                    ? ABSENT
+                    : PRESENT + ENCODER.encodeToString(username.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeUsername(String part) {
+        if (part.equals(ABSENT)) {
+            return null;
+        }
+        if (!part.startsWith(PRESENT)) {
+            throw new IllegalArgumentException("missing username flag");
+        }
+        return new String(DECODER.decode(part.substring(PRESENT.length())), StandardCharsets.UTF_8);
+    }
+
+    public Sort getSort() {
+        return BY_USERNAME.equals(order) ? Sort.by("username", "id") : Sort.by("id");
+    }
+}
@@ -0,0 +1,42 @@
+package org.jpabook.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberField;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.jpabook.datajpa.support.JdbcOffload;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberReactiveController {
+
+    private final MemberRepository memberRepository;
+    private final JdbcOffload jdbcOffload;
+
+    @GetMapping("/rx/members/{id}")
+    public Mono<String> findMember(@PathVariable("id") Long id) {
+        return jdbcOffload.read(() -> memberRepository.findById(id).map(Member::getUsername).orElseThrow());
+    }
+
+    /**
+     * Same page as {@code GET /members}, through the same query and cached count.
+     */
+    @GetMapping("/rx/members")
+    public Mono<Page<Member>> list(@PageableDefault(size = 5) Pageable pageable) {
+        try {
+            MemberField.validateSort(pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return jdbcOffload.read(() -> memberRepository.findPage(pageable));
+    }
+}
@@ -0,0 +1,30 @@
+package org.jpabook.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.jpabook.datajpa.dto.TeamStatsDto;
+import org.jpabook.datajpa.repository.TeamRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    @GetMapping("/teams/{id}/stats")
+    public TeamStatsDto stats(@PathVariable("id") Long id) {
+        return teamRepository.findStatsByTeamId(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "team " + id));
+    }
+
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> allStats() {
+        return teamRepository.findAllStats();
+    }
+}
@@ -0,0 +1,19 @@
+package org.jpabook.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CursorResponse<T> {
+
+    private List<T> content;
+    private String next;
+    private boolean hasNext;
+
+    public CursorResponse(List<T> content, String next) {
+        this.content = content;
+        this.next = next;
+        this.hasNext = next != null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.jpabook.datajpa.dto;
+
+/**
+ * Closed interface projection; Spring Data selects only these columns.
+ */
+public interface MemberSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    int getAge();
+}
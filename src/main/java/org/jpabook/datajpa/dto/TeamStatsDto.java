@@ -0,0 +1,19 @@
+package org.jpabook.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private double averageAge;
+
+    public TeamStatsDto(Long teamId, Long memberCount, Long ageSum) {
+        this.teamId = teamId;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.averageAge = memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+}
@@ -4,15 +4,16 @@ import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
 import lombok.Getter;
+import org.jpabook.datajpa.support.AuditListener;
+import org.jpabook.datajpa.support.OutboxListener;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
 @MappedSuperclass
 @Getter
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditListener.class, OutboxListener.class})
 public class BaseTimeEntity {
     @CreatedDate
     @Column(updatable = false)
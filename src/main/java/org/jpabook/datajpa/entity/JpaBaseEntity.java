@@ -1,30 +1,27 @@
 package org.jpabook.datajpa.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
-import jakarta.persistence.PrePersist;
-import jakarta.persistence.PreUpdate;
 import lombok.Getter;
 
 import java.time.LocalDateTime;
 
 @Getter
 @MappedSuperclass
+@EntityListeners(JpaBaseEntityListener.class)
 public class JpaBaseEntity {
 
     @Column(updatable = false)
     private LocalDateTime createDate;
     private LocalDateTime updateDate;
 
-    @PrePersist
-    public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+    void prePersist(LocalDateTime now) {
         createDate = now;
         updateDate = now;
     }
 
-    @PreUpdate
-    public void preUpdate() {
-        updateDate = LocalDateTime.now();
+    void preUpdate(LocalDateTime now) {
+        updateDate = now;
     }
 }
@@ -0,0 +1,22 @@
+package org.jpabook.datajpa.entity;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+import org.jpabook.datajpa.support.AuditClock;
+
+@RequiredArgsConstructor
+public class JpaBaseEntityListener {
+
+    private final AuditClock auditClock;
+
+    @PrePersist
+    public void prePersist(JpaBaseEntity entity) {
+        entity.prePersist(auditClock.now());
+    }
+
+    @PreUpdate
+    public void preUpdate(JpaBaseEntity entity) {
+        entity.preUpdate(auditClock.now());
+    }
+}
@@ -2,16 +2,39 @@ package org.jpabook.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_age_username", columnList = "age, username, member_id"),
+        @Index(name = "idx_member_team", columnList = "team_id")
+})
+@NamedEntityGraph(name = Member.GRAPH_TEAM, attributeNodes = @NamedAttributeNode("team"))
+@NamedEntityGraph(name = Member.GRAPH_TEAM_MEMBERS,
+        attributeNodes = @NamedAttributeNode(value = "team", subgraph = "team"),
+        subgraphs = @NamedSubgraph(name = "team", attributeNodes = @NamedAttributeNode("members")))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    public static final String GRAPH_TEAM = "Member.team";
+    public static final String GRAPH_TEAM_MEMBERS = "Member.team.members";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
+
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     private String username;
     private int age;
 
@@ -0,0 +1,30 @@
+package org.jpabook.datajpa.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change event written in the same transaction as the change itself and removed once relayed.
+ * Rows are inserted with plain JDBC by {@code Outbox}, hence the identity column.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "aggregateType", "aggregateId", "eventType"})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private String eventType;
+    @Column(length = 4000)
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package org.jpabook.datajpa.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Per-team aggregates, one row per team. Written only by
+ * {@link org.jpabook.datajpa.support.TeamStatsMaintainer}; read-only for the application.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+}
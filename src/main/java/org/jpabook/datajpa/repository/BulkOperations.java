@@ -0,0 +1,231 @@
+package org.jpabook.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.Joinable;
+import org.hibernate.query.NativeQuery;
+import org.jpabook.datajpa.support.Outbox;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs a set-based UPDATE or DELETE as one statement per primary-key range of {@code chunk} ids.
+ * Each range runs in its own transaction unless the caller already has one, so row locks are held
+ * for one range at a time, and the next range starts at the next matching id so gaps cost nothing.
+ * Only the rows actually touched are detached from the persistence context and evicted from the
+ * second-level cache, together with the cached collections that hold them; the eviction is repeated
+ * once the transaction commits so a concurrent load cannot put back the old state. Cached queries
+ * over the table are invalidated at the same point.
+ */
+@Component
+public class BulkOperations {
+
+    private static final String BULK_QUERY_SPACE = "bulk_operations";
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final Outbox outbox;
+
+    public BulkOperations(EntityManager em, PlatformTransactionManager transactionManager, Outbox outbox) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.outbox = outbox;
+    }
+
+    /**
+     * @param statement {@code UPDATE table SET ...} or {@code DELETE FROM table}, without a WHERE clause
+     * @param where     SQL predicate selecting the target rows
+     */
+    public int execute(Class<?> entityClass, String table, String idColumn,
+                       String statement, String where, Map<String, Object> params, int chunk) {
+        return execute(entityClass, table, idColumn, statement, where, params, chunk, RangeHook.NONE);
+    }
+
+    /**
+     * @param hook called in each range's transaction with the locked ids, before the statement runs
+     */
+    public int execute(Class<?> entityClass, String table, String idColumn,
+                       String statement, String where, Map<String, Object> params, int chunk, RangeHook hook) {
+        if (chunk <= 0) {
+            throw new IllegalArgumentException("chunk must be positive: " + chunk);
+        }
+        Object[] bounds = (Object[]) bind(em.createNativeQuery(
+                "SELECT MIN(" + idColumn + "), MAX(" + idColumn + ") FROM " + table + " WHERE " + where), params)
+                .getSingleResult();
+        if (bounds[0] == null) {
+            return 0;
+        }
+        long max = ((Number) bounds[1]).longValue();
+
+        String range = " WHERE (" + where + ") AND " + idColumn + " >= :lo AND " + idColumn + " < :hi";
+        String next = "SELECT MIN(" + idColumn + ") FROM " + table + " WHERE (" + where + ") AND " + idColumn + " >= :lo";
+        int affected = 0;
+        Long lo = ((Number) bounds[0]).longValue();
+        while (lo != null && lo <= max) {
+            long from = lo;
+            long to = lo + chunk;
+            Integer count = tx.execute(status -> {
+                List<?> ids = range(em.createNativeQuery("SELECT " + idColumn + " FROM " + table + range + " FOR UPDATE"),
+                        params, from, to).getResultList();
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<Long> rowIds = ids.stream().map(id -> ((Number) id).longValue()).toList();
+                Runnable afterStatement = hook.beforeStatement(rowIds);
+                CacheEviction eviction = new CacheEviction(entityClass, table, idColumn, rowIds);
+                Query update = range(em.createNativeQuery(statement + range), params, from, to);
+                // a space no entity or query uses: the touched rows are evicted below instead of whole regions
+                update.unwrap(NativeQuery.class).addSynchronizedQuerySpace(BULK_QUERY_SPACE);
+                int updated = update.executeUpdate();
+                detach(entityClass, ids);
+                eviction.collectOwners();
+                eviction.evict();
+                TransactionSynchronizationManager.registerSynchronization(eviction);
+                afterStatement.run();
+                appendEvent(entityClass, statement, where, params, from, to, updated);
+                return updated;
+            });
+            affected += count;
+            Object nextId = bind(em.createNativeQuery(next), params).setParameter("lo", to).getSingleResult();
+            lo = nextId == null ? null : ((Number) nextId).longValue();
+        }
+        return affected;
+    }
+
+    /**
+     * Keeps derived data in step with a range statement, inside the range's transaction.
+     */
+    @FunctionalInterface
+    public interface RangeHook {
+
+        RangeHook NONE = ids -> () -> {
+        };
+
+        /**
+         * @param ids primary keys of the locked rows the statement is about to touch
+         * @return action to run once the statement has executed
+         */
+        Runnable beforeStatement(List<Long> ids);
+    }
+
+    /**
+     * One compact event per range statement instead of one per row.
+     */
+    private void appendEvent(Class<?> entityClass, String statement, String where, Map<String, Object> params,
+                             long from, long to, int rows) {
+        String aggregateType = entityClass.getSimpleName();
+        boolean delete = statement.regionMatches(true, 0, "DELETE", 0, 6);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("statement", statement);
+        payload.put("where", where);
+        payload.put("params", params);
+        payload.put("idFrom", from);
+        payload.put("idTo", to);
+        payload.put("rows", rows);
+        outbox.append(aggregateType, null, aggregateType + (delete ? "BulkDelete" : "BulkUpdate"), payload);
+    }
+
+    /**
+     * Second-level cache entries for one range: the touched entities, the collections they own and
+     * the collections that hold them, whose owners are read before and after the statement.
+     */
+    private final class CacheEviction implements TransactionSynchronization {
+
+        private final SessionImplementor session;
+        private final EntityPersister persister;
+        private final String table;
+        private final String idColumn;
+        private final List<Long> ids;
+        private final List<CollectionPersister> owned = new ArrayList<>();
+        private final Map<CollectionPersister, String> holding = new LinkedHashMap<>();
+        private final Map<CollectionPersister, Set<Object>> owners = new LinkedHashMap<>();
+
+        CacheEviction(Class<?> entityClass, String table, String idColumn, List<Long> ids) {
+            this.session = em.unwrap(SessionImplementor.class);
+            this.persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+            this.table = table;
+            this.idColumn = idColumn;
+            this.ids = ids;
+            session.getFactory().getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+                if (!collection.hasCache()) {
+                    return;
+                }
+                if (collection.getOwnerEntityPersister() == persister) {
+                    owned.add(collection);
+                }
+                if (collection.isOneToMany() && collection.getElementPersister() == persister) {
+                    holding.put(collection, ((Joinable) collection).getKeyColumnNames()[0]);
+                    owners.put(collection, new LinkedHashSet<>());
+                }
+            });
+            collectOwners();
+        }
+
+        /**
+         * Adds the current owners of the touched rows, so a row that moves invalidates both sides.
+         */
+        @SuppressWarnings("unchecked")
+        void collectOwners() {
+            holding.forEach((collection, keyColumn) -> owners.get(collection).addAll(em.createNativeQuery(
+                            "SELECT DISTINCT " + keyColumn + " FROM " + table
+                                    + " WHERE " + idColumn + " IN (:ids) AND " + keyColumn + " IS NOT NULL")
+                    .setParameter("ids", ids)
+                    .getResultList()));
+        }
+
+        void evict() {
+            CacheImplementor cache = session.getFactory().getCache();
+            for (Long id : ids) {
+                cache.evictEntityData(persister.getEntityName(), id);
+                for (CollectionPersister collection : owned) {
+                    cache.evictCollectionData(collection.getRole(), id);
+                }
+            }
+            owners.forEach((collection, keys) -> keys.forEach(key ->
+                    cache.evictCollectionData(collection.getRole(), ((Number) key).longValue())));
+            cache.getTimestampsCache().invalidate(new String[]{table}, session);
+        }
+
+        @Override
+        public void afterCommit() {
+            evict();
+        }
+    }
+
+    private void detach(Class<?> entityClass, List<?> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+        for (Object rawId : ids) {
+            Long id = ((Number) rawId).longValue();
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    private Query range(Query query, Map<String, Object> params, long lo, long hi) {
+        return bind(query, params)
+                .setParameter("lo", lo)
+                .setParameter("hi", hi);
+    }
+
+    private Query bind(Query query, Map<String, Object> params) {
+        params.forEach(query::setParameter);
+        return query;
+    }
+}
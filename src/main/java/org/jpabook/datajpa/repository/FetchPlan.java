@@ -0,0 +1,38 @@
+package org.jpabook.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.SpecHints;
+import org.jpabook.datajpa.entity.Member;
+
+/**
+ * How much of the Member graph a query loads, applied as a JPA fetch graph.
+ */
+public enum FetchPlan {
+
+    NONE(null, false),
+    TEAM(Member.GRAPH_TEAM, false),
+    TEAM_MEMBERS(Member.GRAPH_TEAM_MEMBERS, true);
+
+    private final String graph;
+    private final boolean fetchesCollection;
+
+    FetchPlan(String graph, boolean fetchesCollection) {
+        this.graph = graph;
+        this.fetchesCollection = fetchesCollection;
+    }
+
+    /**
+     * A collection fetch multiplies rows, so such a query can't be limited in SQL.
+     */
+    public boolean fetchesCollection() {
+        return fetchesCollection;
+    }
+
+    <T> TypedQuery<T> apply(EntityManager em, TypedQuery<T> query) {
+        if (graph != null) {
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, em.getEntityGraph(graph));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,79 @@
+package org.jpabook.datajpa.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Member columns that can be requested through {@code ?fields=}.
+ */
+public enum MemberField {
+
+    ID("id", "m.id", true),
+    USERNAME("username", "m.username", true),
+    AGE("age", "m.age", true),
+    TEAM_NAME("teamName", "t.name", false),
+    CREATE_DATE("createDate", "m.createDate", true),
+    LAST_MODIFIED_DATE("lastModifiedDate", "m.lastModifiedDate", true),
+    CREATED_BY("createdBy", "m.createdBy", true),
+    LAST_MODIFIED_BY("lastModifiedBy", "m.lastModifiedBy", true);
+
+    private final String property;
+    private final String expression;
+    private final boolean sortable;
+
+    MemberField(String property, String expression, boolean sortable) {
+        this.property = property;
+        this.expression = expression;
+        this.sortable = sortable;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    String getExpression() {
+        return expression;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown or empty field list
+     */
+    public static Set<MemberField> parse(String fields) {
+        Set<MemberField> result = EnumSet.noneOf(MemberField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            result.add(of(trimmed));
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("no fields requested");
+        }
+        return result;
+    }
+
+    /**
+     * Sorting applies to Member attributes, so joined fields such as {@code teamName} are rejected.
+     *
+     * @throws IllegalArgumentException for an unknown or unsortable property
+     */
+    public static void validateSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!of(order.getProperty()).sortable) {
+                throw new IllegalArgumentException("cannot sort by: " + order.getProperty());
+            }
+        }
+    }
+
+    private static MemberField of(String property) {
+        for (MemberField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("unknown field: " + property);
+    }
+}
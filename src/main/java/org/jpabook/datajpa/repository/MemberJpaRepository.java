@@ -3,22 +3,31 @@ package org.jpabook.datajpa.repository;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.support.Outbox;
+import org.jpabook.datajpa.support.TeamStatsMaintainer;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
     private final EntityManager em;
+    private final Outbox outbox;
+    private final TeamStatsMaintainer teamStats;
 
+    @Transactional
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    @Transactional
     public void delete(Member member) {
         em.remove(member);
     }
@@ -47,23 +56,38 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByPage(int age, int offset, int limit) {
-        return em.createQuery("SELECT m FROM Member m WHERE m.age = :age ORDER BY m.username DESC", Member.class)
+        return em.createQuery("SELECT m FROM Member m WHERE m.age = :age ORDER BY m.username DESC, m.id DESC", Member.class)
                 .setParameter("age", age)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
+    public List<Member> findByPageAfter(int age, String lastUsername, Long lastId, int limit) {
+        return em.createQuery("SELECT m FROM Member m WHERE m.age = :age" +
+                        " AND (m.username < :username OR (m.username = :username AND m.id < :id))" +
+                        " ORDER BY m.username DESC, m.id DESC", Member.class)
+                .setParameter("age", age)
+                .setParameter("username", lastUsername)
+                .setParameter("id", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public long totalCount(int age) {
         return em.createQuery("SELECT COUNT(m) FROM Member m WHERE m.age = :age", Long.class)
                 .setParameter("age", age)
                 .getSingleResult();
     }
 
+    @Transactional
     public int bulkAgePlus(int age) {
-        return em.createQuery("UPDATE Member m SET m.age = m.age + 1" +
+        teamStats.agePlus(age);
+        int updated = em.createQuery("UPDATE Member m SET m.age = m.age + 1, m.version = m.version + 1" +
                 " WHERE m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
+        outbox.append("Member", null, "MemberBulkUpdate", Map.of("operation", "agePlus", "minAge", age, "rows", updated));
+        return updated;
     }
 }
@@ -1,17 +1,25 @@
 package org.jpabook.datajpa.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jpabook.datajpa.dto.MemberDto;
 import org.jpabook.datajpa.entity.Member;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
@@ -20,22 +28,49 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("SELECT m FROM Member m WHERE m.username = :username AND m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
 
+    @Query("SELECT m.username FROM Member m WHERE m.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "member-queries")
+    })
     @Query("SELECT m.username FROM Member m")
     List<String> findUsernameList();
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "member-queries")
+    })
     @Query("SELECT new org.jpabook.datajpa.dto.MemberDto(m.id, m.username, t.name) FROM Member m JOIN m.team t")
     List<MemberDto> findMemberDto();
 
     Page<Member> findByAge(int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true)
-    @Query("UPDATE Member m SET m.age = m.age + 1 WHERE m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    /**
+     * IN lists are padded to the next power of two ({@code in_clause_parameter_padding}), so this
+     * produces one SQL shape per power of two rather than one per list size. Declared as JPQL so
+     * every list size reuses the same cached HQL plan.
+     */
+    @Query("SELECT m FROM Member m WHERE m.id IN :ids")
+    List<Member> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    <T> Page<T> findAllBy(Pageable pageable, Class<T> type);
+
+    <T> Page<T> findByAge(int age, Pageable pageable, Class<T> type);
+
+    @Query(value = "SELECT new org.jpabook.datajpa.dto.MemberDto(m.id, m.username, t.name) FROM Member m LEFT JOIN m.team t",
+            countQuery = "SELECT COUNT(m) FROM Member m")
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    Window<Member> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Member> findByAge(int age, ScrollPosition position, Sort sort, Limit limit);
 
     @Query("select m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
 
     @Override
-    @EntityGraph(attributePaths = {"team"})
+    @EntityGraph(Member.GRAPH_TEAM)
     List<Member> findAll();
 }
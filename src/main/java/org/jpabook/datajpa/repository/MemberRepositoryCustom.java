@@ -1,9 +1,45 @@
 package org.jpabook.datajpa.repository;
 
+import org.jpabook.datajpa.dto.MemberDto;
 import org.jpabook.datajpa.entity.Member;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    Page<Member> findPage(Pageable pageable);
+
+    Page<Member> findPageByAge(int age, Pageable pageable);
+
+    Slice<Member> findSliceByAge(int age, Pageable pageable);
+
+    List<Member> findAllWith(FetchPlan plan, Sort sort);
+
+    Page<Member> findPageWith(FetchPlan plan, Pageable pageable);
+
+    Page<Member> findPageByAgeWith(int age, FetchPlan plan, Pageable pageable);
+
+    Page<Map<String, Object>> findPageFields(Set<MemberField> fields, Pageable pageable);
+
+    int saveAllBatched(Iterable<Member> members, int chunk);
+
+    int importAll(Iterable<Member> members, int chunk);
+
+    int bulkAgePlus(int age);
+
+    int bulkReassignTeam(Long fromTeamId, Long toTeamId, int chunk);
+
+    int bulkDeleteByAgeLessThan(int age, int chunk);
+
+    Stream<Member> streamMembers(int fetchSize);
+
+    Stream<MemberDto> streamMemberDto(int fetchSize);
 }
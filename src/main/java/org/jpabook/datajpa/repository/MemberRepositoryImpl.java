@@ -1,19 +1,361 @@
 package org.jpabook.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.jpabook.datajpa.dto.MemberDto;
 import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.support.AuditClock;
+import org.jpabook.datajpa.support.AuditListener;
+import org.jpabook.datajpa.support.Outbox;
+import org.jpabook.datajpa.support.TeamStatsMaintainer;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
 
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final PageCounts pageCounts;
+    private final BulkOperations bulkOperations;
+    private final AuditorAware<String> auditorAware;
+    private final AuditClock auditClock;
+    private final Outbox outbox;
+    private final TeamStatsMaintainer teamStats;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("SELECT m FROM Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    public Page<Member> findPage(Pageable pageable) {
+        TypedQuery<Member> query = em.createQuery(
+                QueryUtils.applySorting("SELECT m FROM Member m", pageable.getSort(), "m"), Member.class);
+
+        return page("findPage", PageCounts.ALL, query, pageable,
+                () -> em.createQuery("SELECT COUNT(m) FROM Member m", Long.class).getSingleResult());
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable) {
+        TypedQuery<Member> query = em.createQuery(
+                QueryUtils.applySorting("SELECT m FROM Member m WHERE m.age = :age", pageable.getSort(), "m"), Member.class)
+                .setParameter("age", age);
+
+        return page("findPageByAge", age, query, pageable,
+                () -> em.createQuery("SELECT COUNT(m) FROM Member m WHERE m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult());
+    }
+
+    @Override
+    public Slice<Member> findSliceByAge(int age, Pageable pageable) {
+        List<Member> rows = em.createQuery(
+                        QueryUtils.applySorting("SELECT m FROM Member m WHERE m.age = :age", pageable.getSort(), "m"), Member.class)
+                .setParameter("age", age)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        return pageCounts.slice("findSliceByAge", rows, pageable);
+    }
+
+    @Override
+    public List<Member> findAllWith(FetchPlan plan, Sort sort) {
+        return plan.apply(em, em.createQuery(QueryUtils.applySorting("SELECT m FROM Member m", sort, "m"), Member.class))
+                .getResultList();
+    }
+
+    @Override
+    public Page<Member> findPageWith(FetchPlan plan, Pageable pageable) {
+        return pageWith(plan, "findPage", PageCounts.ALL, "", Map.of(), pageable);
+    }
+
+    @Override
+    public Page<Member> findPageByAgeWith(int age, FetchPlan plan, Pageable pageable) {
+        return pageWith(plan, "findPageByAge", age, " WHERE m.age = :age", Map.of("age", age), pageable);
+    }
+
+    /**
+     * Plans that fetch a collection page over ids first and then load the graph for just those ids,
+     * instead of letting Hibernate apply the limit in memory (HHH90003004).
+     */
+    private Page<Member> pageWith(FetchPlan plan, String method, Object predicate, String where,
+                                  Map<String, Object> params, Pageable pageable) {
+        LongSupplier countQuery = () -> bind(em.createQuery("SELECT COUNT(m) FROM Member m" + where, Long.class), params)
+                .getSingleResult();
+        if (!plan.fetchesCollection() || pageable.isUnpaged()) {
+            TypedQuery<Member> query = bind(em.createQuery(
+                    QueryUtils.applySorting("SELECT m FROM Member m" + where, pageable.getSort(), "m"), Member.class), params);
+            return page(method, predicate, plan.apply(em, query), pageable, countQuery);
+        }
+
+        TypedQuery<Long> idQuery = bind(em.createQuery(
+                QueryUtils.applySorting("SELECT m.id FROM Member m" + where, pageable.getSort(), "m"), Long.class), params);
+        Page<Long> ids = page(method, predicate, idQuery, pageable, countQuery);
+        Map<Long, Member> members = new HashMap<>();
+        if (ids.hasContent()) {
+            plan.apply(em, em.createQuery("SELECT m FROM Member m WHERE m.id IN :ids", Member.class))
+                    .setParameter("ids", ids.getContent())
+                    .getResultList()
+                    .forEach(member -> members.put(member.getId(), member));
+        }
+        // members deleted between the two queries are dropped rather than returned as null
+        List<Member> content = ids.getContent().stream()
+                .map(members::get)
+                .filter(Objects::nonNull)
+                .toList();
+        long missing = ids.getNumberOfElements() - content.size();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements() - missing);
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, Map<String, Object> params) {
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    /**
+     * Selects only the requested columns; the team is joined only when {@code teamName} is requested.
+     * Sorting applies to Member attributes.
+     */
+    @Override
+    public Page<Map<String, Object>> findPageFields(Set<MemberField> fields, Pageable pageable) {
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        for (MemberField field : fields) {
+            jpql.append(field.getExpression()).append(" AS ").append(field.getProperty()).append(", ");
+        }
+        jpql.setLength(jpql.length() - 2);
+        jpql.append(" FROM Member m");
+        if (fields.contains(MemberField.TEAM_NAME)) {
+            jpql.append(" LEFT JOIN m.team t");
+        }
+        TypedQuery<Tuple> query = em.createQuery(QueryUtils.applySorting(jpql.toString(), pageable.getSort(), "m"), Tuple.class);
+
+        Page<Tuple> page = page("findPage", PageCounts.ALL, query, pageable,
+                () -> em.createQuery("SELECT COUNT(m) FROM Member m", Long.class).getSingleResult());
+        return page.map(tuple -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (MemberField field : fields) {
+                row.put(field.getProperty(), tuple.get(field.getProperty()));
+            }
+            return row;
+        });
+    }
+
+    /**
+     * Persists members (and their not yet persisted teams) in chunks, flushing after each chunk so
+     * JDBC batching applies, then releasing the chunk so memory stays bounded. Entities passed in
+     * are detached once their chunk is written. The whole persistence context is cleared only when
+     * this call started the transaction; joined to a caller's transaction, only the entities it
+     * persisted are detached and everything else the caller manages stays managed.
+     */
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int chunk) {
+        return persistInChunks(members, chunk, (minId, maxId) -> {
+        });
+    }
+
+    /**
+     * Bulk-import variant of {@link #saveAllBatched}: the auditing listener and second-level cache
+     * puts are skipped, and the audit columns of each chunk are filled by one UPDATE after it is
+     * flushed. The passed-in entities keep null audit fields.
+     */
+    @Override
+    @Transactional
+    public int importAll(Iterable<Member> members, int chunk) {
+        Session session = em.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        String auditor = auditorAware.getCurrentAuditor().orElse(null);
+        try (AuditListener.Suppression ignored = AuditListener.suppress()) {
+            return persistInChunks(members, chunk, (minId, maxId) -> em.createNativeQuery(
+                            "UPDATE member SET create_date = :now, last_modified_date = :now," +
+                            " created_by = :auditor, last_modified_by = :auditor" +
+                            " WHERE member_id BETWEEN :minId AND :maxId AND create_date IS NULL")
+                    .setParameter("now", auditClock.now())
+                    .setParameter("auditor", auditor)
+                    .setParameter("minId", minId)
+                    .setParameter("maxId", maxId)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace("member")
+                    .executeUpdate());
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    private int persistInChunks(Iterable<Member> members, int chunk, BiConsumer<Long, Long> afterFlush) {
+        if (chunk <= 0) {
+            throw new IllegalArgumentException("chunk must be positive: " + chunk);
+        }
+        boolean ownsTransaction = TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        List<Object> written = new ArrayList<>();
+        int count = 0;
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        for (Member member : members) {
+            Team team = member.getTeam();
+            if (team != null && team.getId() == null) {
+                em.persist(team);
+                written.add(team);
+            }
+            em.persist(member);
+            written.add(member);
+            minId = Math.min(minId, member.getId());
+            maxId = Math.max(maxId, member.getId());
+            if (++count % chunk == 0) {
+                em.flush();
+                afterFlush.accept(minId, maxId);
+                release(written, ownsTransaction);
+                minId = Long.MAX_VALUE;
+                maxId = Long.MIN_VALUE;
+            }
+        }
+        em.flush();
+        if (minId <= maxId) {
+            afterFlush.accept(minId, maxId);
+        }
+        release(written, ownsTransaction);
+        return count;
+    }
+
+    private void release(List<Object> written, boolean ownsTransaction) {
+        if (ownsTransaction) {
+            em.clear();
+        } else {
+            written.forEach(em::detach);
+        }
+        written.clear();
+    }
+
+    /**
+     * Clears the persistence context afterwards, since managed members may hold stale ages.
+     * Publishes one outbox event for the whole statement and adjusts team stats set-based beforehand.
+     */
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        teamStats.agePlus(age);
+        int updated = em.createQuery("UPDATE Member m SET m.age = m.age + 1, m.version = m.version + 1" +
+                        " WHERE m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+        em.clear();
+        outbox.append("Member", null, "MemberBulkUpdate", Map.of("operation", "agePlus", "minAge", age, "rows", updated));
+        return updated;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int bulkReassignTeam(Long fromTeamId, Long toTeamId, int chunk) {
+        int updated = bulkOperations.execute(Member.class, "member", "member_id",
+                "UPDATE member SET team_id = :toTeamId, version = version + 1", "team_id = :fromTeamId",
+                Map.of("fromTeamId", fromTeamId, "toTeamId", toTeamId), chunk,
+                ids -> () -> teamStats.rebuild(List.of(fromTeamId, toTeamId)));
+        return updated;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int bulkDeleteByAgeLessThan(int age, int chunk) {
+        int deleted = bulkOperations.execute(Member.class, "member", "member_id",
+                "DELETE FROM member", "age < :age", Map.of("age", age), chunk, ids -> {
+                    List<Long> teamIds = teamIdsOf(ids);
+                    return () -> teamStats.rebuild(teamIds);
+                });
+        return deleted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> teamIdsOf(List<Long> memberIds) {
+        List<Number> teamIds = em.createNativeQuery(
+                        "SELECT DISTINCT team_id FROM member WHERE member_id IN (:ids) AND team_id IS NOT NULL")
+                .setParameter("ids", memberIds)
+                .getResultList();
+        return teamIds.stream().map(Number::longValue).toList();
+    }
+
+    /**
+     * Streams every member over a server-side cursor. Must be consumed inside a transaction and closed.
+     * Rows are loaded read-only, bypass the second-level cache, and are detached {@code fetchSize}
+     * rows after they were emitted so the persistence context stays bounded. Members the caller
+     * already had managed before the call are returned as they are and stay managed.
+     */
+    @Override
+    public Stream<Member> streamMembers(int fetchSize) {
+        Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member) {
+                managed.add(entry.getKey());
+            }
+        }
+        List<Member> emitted = new ArrayList<>(fetchSize);
+        return em.createQuery("SELECT m FROM Member m ORDER BY m.id", Member.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()
+                .peek(member -> {
+                    if (emitted.size() == fetchSize) {
+                        emitted.forEach(em::detach);
+                        emitted.clear();
+                    }
+                    if (!managed.contains(member)) {
+                        emitted.add(member);
+                    }
+                });
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery("SELECT new org.jpabook.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                        " FROM Member m LEFT JOIN m.team t ORDER BY m.id", MemberDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private <T> Page<T> page(String method, Object predicate, TypedQuery<T> query,
+                             Pageable pageable, LongSupplier countQuery) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(query.getResultList());
+        }
+        List<T> rows = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        return pageCounts.page(method, "member", predicate, rows, pageable, countQuery);
+    }
 }
@@ -0,0 +1,62 @@
+package org.jpabook.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drops cached page totals whenever Hibernate prepares an insert, update or delete against a table,
+ * which covers entity saves as well as bulk JPQL updates such as {@code bulkAgePlus}.
+ * Inside a transaction the table is dropped again once the transaction completes, since another
+ * transaction may have cached a total from before the commit in the meantime.
+ */
+@RequiredArgsConstructor
+public class PageCountInvalidator implements StatementInspector {
+
+    private static final Pattern DML = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+from)\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private final Supplier<PageCounts> pageCounts;
+
+    @Override
+    public String inspect(String sql) {
+        String statement = sql.stripLeading();
+        char first = statement.isEmpty() ? ' ' : Character.toLowerCase(statement.charAt(0));
+        if (first == 'i' || first == 'u' || first == 'd') {
+            Matcher matcher = DML.matcher(statement);
+            if (matcher.find()) {
+                pageCounts.get().invalidate(matcher.group(1));
+                invalidateAfterCompletion(matcher.group(1));
+            }
+        }
+        return sql;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invalidateAfterCompletion(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (tables == null) {
+            Set<String> written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PageCountInvalidator.this);
+                    written.forEach(pageCounts.get()::invalidate);
+                }
+            });
+            tables = written;
+        }
+        tables.add(table);
+    }
+}
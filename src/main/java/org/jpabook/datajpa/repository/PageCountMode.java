@@ -0,0 +1,12 @@
+package org.jpabook.datajpa.repository;
+
+/**
+ * How a {@link org.springframework.data.domain.Page} total is resolved. Callers that only need to know
+ * whether a next page exists should ask for a {@link org.springframework.data.domain.Slice} instead.
+ */
+public enum PageCountMode {
+    EXACT,
+    CACHED,
+    /** Table row-count estimate for unfiltered pages; filtered pages fall back to EXACT. */
+    ESTIMATED
+}
@@ -0,0 +1,24 @@
+package org.jpabook.datajpa.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.page-count")
+public class PageCountProperties {
+
+    private PageCountMode defaultMode = PageCountMode.EXACT;
+    private Duration cacheTtl = Duration.ofSeconds(30);
+    private Map<String, PageCountMode> methods = new HashMap<>();
+
+    public PageCountMode modeOf(String method) {
+        return methods.getOrDefault(method, defaultMode);
+    }
+}
@@ -0,0 +1,122 @@
+package org.jpabook.datajpa.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Builds {@link Page} results from a content query that fetched {@code pageSize + 1} rows,
+ * resolving the total with the {@link PageCountMode} configured for the calling method.
+ * The extra row tells whether a next page exists, so the last page never needs a COUNT,
+ * and a {@link Slice} never does.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageCounts {
+
+    private final EntityManager em;
+    private final PageCountProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /** Predicate of an unfiltered query. */
+    public static final String ALL = "all";
+
+    private final Map<String, Map<Object, CachedCount>> cache = new ConcurrentHashMap<>();
+
+    public <T> Slice<T> slice(String method, List<T> rows, Pageable pageable) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        avoided(method);
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    public <T> Page<T> page(String method, String table, Object predicate,
+                            List<T> rows, Pageable pageable, LongSupplier countQuery) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        long seen = pageable.getOffset() + content.size();
+
+        if (!hasNext && (!content.isEmpty() || pageable.getOffset() == 0)) {
+            avoided(method);
+            return new PageImpl<>(content, pageable, seen);
+        }
+
+        long total = switch (properties.modeOf(method)) {
+            case EXACT -> executed(method, countQuery);
+            case CACHED -> cached(method, table, predicate, countQuery);
+            case ESTIMATED -> ALL.equals(predicate)
+                    ? estimated(method, table, countQuery)
+                    : executed(method, countQuery);
+        };
+        if (content.isEmpty()) {
+            // past the end: the offset says nothing about how many rows there are
+            return new PageImpl<>(content, pageable, total);
+        }
+        return new PageImpl<>(content, pageable, Math.max(total, hasNext ? seen + 1 : seen));
+    }
+
+    public void invalidate(String table) {
+        Map<Object, CachedCount> counts = cache.get(table.toLowerCase());
+        if (counts != null) {
+            counts.clear();
+        }
+    }
+
+    private long cached(String method, String table, Object predicate, LongSupplier countQuery) {
+        Map<Object, CachedCount> counts = cache.computeIfAbsent(table.toLowerCase(), t -> new ConcurrentHashMap<>());
+        Object key = List.of(method, predicate);
+        long now = System.nanoTime();
+
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.expiresAt < 0) {
+            avoided(method);
+            return cached.count;
+        }
+        long count = executed(method, countQuery);
+        counts.put(key, new CachedCount(count, now + properties.getCacheTtl().toNanos()));
+        return count;
+    }
+
+    private long estimated(String method, String table, LongSupplier countQuery) {
+        Object estimate = em.createNativeQuery("SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES" +
+                        " WHERE TABLE_NAME = :table")
+                .setParameter("table", table.toUpperCase())
+                .getResultList()
+                .stream().findFirst().orElse(null);
+        if (estimate instanceof Number number) {
+            avoided(method);
+            return number.longValue();
+        }
+        return executed(method, countQuery);
+    }
+
+    private long executed(String method, LongSupplier countQuery) {
+        counter(method, "executed").increment();
+        return countQuery.getAsLong();
+    }
+
+    private void avoided(String method) {
+        counter(method, "avoided").increment();
+    }
+
+    private Counter counter(String method, String outcome) {
+        return Counter.builder("datajpa.page.count.queries")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record CachedCount(long count, long expiresAt) {
+    }
+}
@@ -3,22 +3,31 @@ package org.jpabook.datajpa.repository;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.support.TeamStatsMaintainer;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class TeamJpaRepository {
 
     private final EntityManager em;
+    private final BulkOperations bulkOperations;
+    private final TeamStatsMaintainer teamStats;
 
+    @Transactional
     public Team save(Team team) {
         em.persist(team);
         return team;
     }
 
+    @Transactional
     public void delete(Team team) {
         em.remove(team);
     }
@@ -34,4 +43,12 @@ public class TeamJpaRepository {
     public long count() {
         return em.createQuery("SELECT COUNT(t) FROM Team t", Long.class).getSingleResult();
     }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int bulkDeleteEmptyTeams(int chunk) {
+        int deleted = bulkOperations.execute(Team.class, "team", "team_id",
+                "DELETE FROM team", "NOT EXISTS (SELECT 1 FROM member m WHERE m.team_id = team.team_id)",
+                Map.of(), chunk, teamIds -> () -> teamStats.remove(teamIds));
+        return deleted;
+    }
 }
@@ -1,9 +1,23 @@
 package org.jpabook.datajpa.repository;
 
+import org.jpabook.datajpa.dto.TeamStatsDto;
 import org.jpabook.datajpa.entity.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    @Query("SELECT new org.jpabook.datajpa.dto.TeamStatsDto(s.teamId, s.memberCount, s.ageSum)" +
+            " FROM TeamStats s WHERE s.teamId = :teamId")
+    Optional<TeamStatsDto> findStatsByTeamId(@Param("teamId") Long teamId);
+
+    @Query("SELECT new org.jpabook.datajpa.dto.TeamStatsDto(s.teamId, s.memberCount, s.ageSum)" +
+            " FROM TeamStats s ORDER BY s.teamId")
+    List<TeamStatsDto> findAllStats();
 }
@@ -0,0 +1,22 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = false;
+    /**
+     * Concurrent requests allowed past the filter; 0 means the Hikari maximum pool size times the
+     * number of pools, counting each replica when routing is enabled.
+     */
+    private int permits = 0;
+    private Duration timeout = Duration.ofSeconds(5);
+}
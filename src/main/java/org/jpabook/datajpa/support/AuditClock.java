@@ -0,0 +1,42 @@
+package org.jpabook.datajpa.support;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Audit timestamp shared by every entity written in the same flush. Inside a transaction the first
+ * call takes a snapshot that is reused until {@link #reset()} runs before or after a flush or when the
+ * transaction completes; outside a transaction every call reads the clock. Inserts are re-stamped at
+ * flush time by {@link AuditFlushListener}.
+ */
+@Component
+public class AuditClock {
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    public LocalDateTime now() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return LocalDateTime.now(clock);
+        }
+        LocalDateTime snapshot = (LocalDateTime) TransactionSynchronizationManager.getResource(this);
+        if (snapshot == null) {
+            snapshot = LocalDateTime.now(clock);
+            TransactionSynchronizationManager.bindResource(this, snapshot);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    reset();
+                }
+            });
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+    }
+}
@@ -0,0 +1,22 @@
+package org.jpabook.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Interceptor;
+
+import java.util.Iterator;
+
+@RequiredArgsConstructor
+public class AuditClockInterceptor implements Interceptor {
+
+    private final AuditClock auditClock;
+
+    @Override
+    public void preFlush(Iterator<Object> entities) {
+        auditClock.reset();
+    }
+
+    @Override
+    public void postFlush(Iterator<Object> entities) {
+        auditClock.reset();
+    }
+}
@@ -0,0 +1,41 @@
+package org.jpabook.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.jpabook.datajpa.entity.BaseTimeEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Re-stamps the audit dates of each inserted {@link BaseTimeEntity} with the {@link AuditClock} snapshot
+ * of the flush that writes it, so rows persisted early in a long transaction are not dated back to their
+ * {@code persist} call. Dates left null, as bulk imports do, stay null. Registered by {@link EventListenerIntegrator}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditFlushListener implements PreInsertEventListener {
+
+    private final AuditClock auditClock;
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        if (event.getEntity() instanceof BaseTimeEntity) {
+            LocalDateTime now = auditClock.now();
+            stamp(event, "createDate", now);
+            stamp(event, "lastModifiedDate", now);
+        }
+        return false;
+    }
+
+    private static void stamp(PreInsertEvent event, String property, LocalDateTime now) {
+        EntityPersister persister = event.getPersister();
+        int index = persister.getPropertyIndex(property);
+        if (event.getState()[index] != null) {
+            event.getState()[index] = now;
+            persister.setValue(event.getEntity(), index, now);
+        }
+    }
+}
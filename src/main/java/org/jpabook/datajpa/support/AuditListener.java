@@ -0,0 +1,48 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link AuditingEntityListener} that can be switched off on the current thread, for bulk imports
+ * that fill the audit columns with one SQL statement per chunk instead.
+ */
+@Component
+public class AuditListener extends AuditingEntityListener {
+
+    private static final ThreadLocal<Boolean> SUPPRESSED = new ThreadLocal<>();
+
+    public AuditListener(ObjectProvider<AuditingHandler> auditingHandler) {
+        setAuditingHandler(auditingHandler);
+    }
+
+    public static Suppression suppress() {
+        SUPPRESSED.set(Boolean.TRUE);
+        return SUPPRESSED::remove;
+    }
+
+    @Override
+    @PrePersist
+    public void touchForCreate(Object target) {
+        if (SUPPRESSED.get() == null) {
+            super.touchForCreate(target);
+        }
+    }
+
+    @Override
+    @PreUpdate
+    public void touchForUpdate(Object target) {
+        if (SUPPRESSED.get() == null) {
+            super.touchForUpdate(target);
+        }
+    }
+
+    public interface Suppression extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
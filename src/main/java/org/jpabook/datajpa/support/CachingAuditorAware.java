@@ -0,0 +1,42 @@
+package org.jpabook.datajpa.support;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the auditor once per transaction instead of once per audited entity.
+ */
+public class CachingAuditorAware implements AuditorAware<String> {
+
+    private final Supplier<String> resolver;
+
+    public CachingAuditorAware(Supplier<String> resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.ofNullable(resolver.get());
+        }
+        String auditor = (String) TransactionSynchronizationManager.getResource(this);
+        if (auditor == null) {
+            auditor = resolver.get();
+            if (auditor == null) {
+                return Optional.empty();
+            }
+            TransactionSynchronizationManager.bindResource(this, auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CachingAuditorAware.this);
+                }
+            });
+        }
+        return Optional.of(auditor);
+    }
+}
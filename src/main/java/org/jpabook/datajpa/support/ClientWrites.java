@@ -0,0 +1,56 @@
+package org.jpabook.datajpa.support;
+
+import java.util.function.LongConsumer;
+
+/**
+ * When the client being served last committed a write through {@link ReplicaRoutingDataSource},
+ * in epoch milliseconds. Opened per HTTP request by {@link ReadYourWritesFilter} from the client's
+ * cookie, so one client's writes keep only that client's reads on the primary. A thread without an
+ * open scope, such as a scheduled job, tracks its own writes.
+ */
+public class ClientWrites implements AutoCloseable {
+
+    private static final ThreadLocal<ClientWrites> CURRENT = ThreadLocal.withInitial(() -> new ClientWrites(0, at -> {
+    }, null));
+
+    private final LongConsumer onWrite;
+    private final ClientWrites previous;
+    private volatile long lastWrite;
+
+    private ClientWrites(long lastWrite, LongConsumer onWrite, ClientWrites previous) {
+        this.lastWrite = lastWrite;
+        this.onWrite = onWrite;
+        this.previous = previous;
+    }
+
+    /**
+     * @param onWrite told the commit time of each write, for example to hand it back to the client
+     */
+    public static ClientWrites open(long lastWrite, LongConsumer onWrite) {
+        ClientWrites scope = new ClientWrites(lastWrite, onWrite, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static ClientWrites current() {
+        return CURRENT.get();
+    }
+
+    public long getLastWrite() {
+        return lastWrite;
+    }
+
+    void written(long at) {
+        lastWrite = at;
+        onWrite.accept(at);
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets at most as many requests touch the database as there are pooled connections, across the
+ * primary and replica pools. Registered only with {@code data-jpa.admission.enabled=true}.
+ * The rest wait on a fair semaphore, which is cheap on virtual threads, instead of piling up inside
+ * Hikari; requests that wait longer than the timeout get 503.
+ */
+public class ConnectionAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final Counter rejected;
+
+    public ConnectionAdmissionFilter(int permits, long timeoutNanos, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = timeoutNanos;
+        this.rejected = meterRegistry.counter("datajpa.admission.rejected");
+        meterRegistry.gauge("datajpa.admission.waiting", this.permits, Semaphore::getQueueLength);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.jpabook.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * Appends the application's event listeners while Hibernate builds the SessionFactory, so no bean has
+ * to unwrap the EntityManagerFactory during context refresh and wait for a background bootstrap.
+ * The listener beans are looked up on the first event: {@link TeamStatsMaintainer} needs the
+ * EntityManager that is still being built here.
+ */
+@RequiredArgsConstructor
+public class EventListenerIntegrator implements Integrator {
+
+    private final Supplier<AuditFlushListener> auditFlushListener;
+    private final Supplier<TeamStatsMaintainer> teamStats;
+    private final boolean teamStatsEnabled;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.PRE_INSERT,
+                (PreInsertEventListener) event -> auditFlushListener.get().onPreInsert(event));
+        if (teamStatsEnabled) {
+            TeamStatsListener teamStatsListener = new TeamStatsListener(teamStats);
+            listeners.appendListeners(EventType.POST_INSERT, teamStatsListener);
+            listeners.appendListeners(EventType.POST_UPDATE, teamStatsListener);
+            listeners.appendListeners(EventType.POST_DELETE, teamStatsListener);
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @RequiredArgsConstructor
+    private static class TeamStatsListener
+            implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private final Supplier<TeamStatsMaintainer> teamStats;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            teamStats.get().onPostInsert(event);
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            teamStats.get().onPostUpdate(event);
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            teamStats.get().onPostDelete(event);
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
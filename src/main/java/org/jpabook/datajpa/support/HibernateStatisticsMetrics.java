@@ -0,0 +1,63 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes Hibernate's second-level and query cache hit/miss/put counts, and query plan cache
+ * hits, misses and hit ratio.
+ * Requires {@code hibernate.generate_statistics}.
+ * Bound once the application is ready rather than as a {@code MeterBinder}, which would unwrap the
+ * EntityManagerFactory while the registry is created and wait for a background bootstrap.
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateStatisticsMetrics {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bind() {
+        bindTo(meterRegistry);
+    }
+
+    private void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        counter(registry, statistics, "datajpa.cache.hits", "second-level", Statistics::getSecondLevelCacheHitCount);
+        counter(registry, statistics, "datajpa.cache.misses", "second-level", Statistics::getSecondLevelCacheMissCount);
+        counter(registry, statistics, "datajpa.cache.puts", "second-level", Statistics::getSecondLevelCachePutCount);
+        counter(registry, statistics, "datajpa.cache.hits", "query", Statistics::getQueryCacheHitCount);
+        counter(registry, statistics, "datajpa.cache.misses", "query", Statistics::getQueryCacheMissCount);
+        counter(registry, statistics, "datajpa.cache.puts", "query", Statistics::getQueryCachePutCount);
+        counter(registry, statistics, "datajpa.cache.hits", "query-plan", Statistics::getQueryPlanCacheHitCount);
+        counter(registry, statistics, "datajpa.cache.misses", "query-plan", Statistics::getQueryPlanCacheMissCount);
+        Gauge.builder("datajpa.cache.hit.ratio", statistics, HibernateStatisticsMetrics::planCacheHitRatio)
+                .tag("cache", "query-plan")
+                .register(registry);
+    }
+
+    private static double planCacheHitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+
+    private void counter(MeterRegistry registry, Statistics statistics, String name, String cache,
+                         ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
@@ -0,0 +1,65 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking JPA reads in a read-only transaction on the bounded {@code jdbcScheduler}, counting
+ * their statements towards the caller's {@link QueryScope}. Results must not need the closed session,
+ * so map entities to DTOs inside the query.
+ * Cancelling the returned {@link Mono}, for example when the client disconnects, cancels the
+ * JDBC statement that is currently executing.
+ */
+@Component
+public class JdbcOffload {
+
+    private final EntityManager em;
+    private final Scheduler scheduler;
+    private final TransactionTemplate readOnly;
+
+    public JdbcOffload(EntityManager em, @Qualifier("jdbcScheduler") Scheduler scheduler,
+                       PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.scheduler = scheduler;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Call on the request thread: its {@link QueryScope} is attached to the worker running the query.
+     */
+    public <T> Mono<T> read(Supplier<T> query) {
+        QueryScope scope = QueryScope.current();
+        return Mono.defer(() -> {
+            AtomicReference<Session> running = new AtomicReference<>();
+            return Mono.fromCallable(() -> {
+                        try (QueryScope.Attachment ignored = scope == null ? null : scope.attach()) {
+                            return readOnly.execute(status -> {
+                                running.set(em.unwrap(Session.class));
+                                try {
+                                    return query.get();
+                                } finally {
+                                    running.set(null);
+                                }
+                            });
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doOnCancel(() -> {
+                        Session session = running.get();
+                        if (session != null) {
+                            session.cancelQuery();
+                        }
+                    });
+        });
+    }
+}
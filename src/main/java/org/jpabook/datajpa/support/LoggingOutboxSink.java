@@ -0,0 +1,20 @@
+package org.jpabook.datajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jpabook.datajpa.entity.OutboxEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("{} {}#{}: {}", event.getEventType(), event.getAggregateType(), event.getAggregateId(),
+                    event.getPayload());
+        }
+    }
+}
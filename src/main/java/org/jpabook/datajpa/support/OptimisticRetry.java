@@ -0,0 +1,102 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when the commit loses an optimistic
+ * version check, up to {@code data-jpa.retry.max-attempts}, sleeping a full-jitter exponential backoff
+ * between attempts. The work must re-read whatever it changes; a failed attempt is rolled back and
+ * its persistence context discarded.
+ * <p>
+ * Every attempt runs on a fresh EntityManager, even when open-in-view has bound one to the request,
+ * and reads through to the database with {@link CacheMode#REFRESH}: a conflicting write made on
+ * another node leaves this node's second-level cache stale, and re-reading it would fail every retry.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryProperties properties;
+    private final MeterRegistry registry;
+
+    public OptimisticRetry(EntityManagerFactory emf, EntityManager em, PlatformTransactionManager transactionManager,
+                           RetryProperties properties, MeterRegistry registry) {
+        this.emf = emf;
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("optimistic retry must not join an existing transaction: " + operation);
+        }
+        // the request's open-in-view EntityManager must not be reused after a failed flush
+        Object requestEntityManager = TransactionSynchronizationManager.unbindResourceIfPossible(emf);
+        try {
+            return attempt(operation, work);
+        } finally {
+            if (requestEntityManager != null) {
+                TransactionSynchronizationManager.bindResource(emf, requestEntityManager);
+            }
+        }
+    }
+
+    private <T> T attempt(String operation, Supplier<T> work) {
+        int maxAttempts = Math.max(properties.getMaxAttempts(), 1);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> {
+                    em.unwrap(Session.class).setCacheMode(CacheMode.REFRESH);
+                    return work.get();
+                });
+                counter(operation, attempt == 1 ? "success" : "retried-success").increment();
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                counter(operation, "conflict").increment();
+                if (attempt >= maxAttempts) {
+                    counter(operation, "exhausted").increment();
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while backing off", e);
+        }
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder("datajpa.optimistic.attempts")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,83 @@
+package org.jpabook.datajpa.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects change events for the current transaction and inserts them as one JDBC batch right before
+ * commit (see {@link PendingWork}). Does nothing when {@code data-jpa.outbox.enabled} is off.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private static final String INSERT = "INSERT INTO outbox_event" +
+            " (aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+    private final AuditClock auditClock;
+    private final OutboxProperties properties;
+
+    public void append(String aggregateType, Long aggregateId, String eventType, Map<String, ?> payload) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Pending pending = PendingWork.current(this, em.unwrap(SessionImplementor.class), Pending::new);
+        pending.events.add(new Event(aggregateType, aggregateId, eventType, toJson(payload),
+                Timestamp.valueOf(auditClock.now())));
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Event(String aggregateType, Long aggregateId, String eventType, String payload, Timestamp createdAt) {
+    }
+
+    private static class Pending extends PendingWork {
+
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        protected void discard() {
+            events.clear();
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (events.isEmpty()) {
+                return;
+            }
+            session.doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    for (Event event : events) {
+                        insert.setString(1, event.aggregateType());
+                        insert.setObject(2, event.aggregateId(), Types.BIGINT);
+                        insert.setString(3, event.eventType());
+                        insert.setString(4, event.payload());
+                        insert.setTimestamp(5, event.createdAt());
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns Member and Team inserts, updates and deletes into outbox events. A team reassignment is a
+ * Member update whose payload carries the new {@code teamId}.
+ */
+@Component
+public class OutboxListener {
+
+    private final ObjectProvider<Outbox> outbox;
+
+    public OutboxListener(ObjectProvider<Outbox> outbox) {
+        this.outbox = outbox;
+    }
+
+    @PostPersist
+    public void created(Object entity) {
+        append(entity, "Created");
+    }
+
+    @PostUpdate
+    public void updated(Object entity) {
+        append(entity, "Updated");
+    }
+
+    @PostRemove
+    public void deleted(Object entity) {
+        append(entity, "Deleted");
+    }
+
+    private void append(Object entity, String change) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        if (entity instanceof Member member) {
+            payload.put("id", member.getId());
+            payload.put("username", member.getUsername());
+            payload.put("age", member.getAge());
+            payload.put("teamId", member.getTeam() == null ? null : member.getTeam().getId());
+            payload.put("version", member.getVersion());
+            outbox.getObject().append("Member", member.getId(), "Member" + change, payload);
+        } else if (entity instanceof Team team) {
+            payload.put("id", team.getId());
+            payload.put("name", team.getName());
+            payload.put("version", team.getVersion());
+            outbox.getObject().append("Team", team.getId(), "Team" + change, payload);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.outbox")
+public class OutboxProperties {
+
+    /**
+     * Record change events for Member and Team writes; when off, nothing is appended to the outbox.
+     */
+    private boolean enabled = true;
+    private boolean relayEnabled = true;
+    private int batchSize = 500;
+    private long relayIntervalMs = 1000;
+}
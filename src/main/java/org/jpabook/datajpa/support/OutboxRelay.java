@@ -0,0 +1,74 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+import org.jpabook.datajpa.entity.OutboxEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Drains the outbox in batches. Each batch claims its rows with {@code FOR UPDATE SKIP LOCKED}
+ * (plain {@code FOR UPDATE} where the dialect lacks it), so several nodes can relay concurrently
+ * without publishing the same event twice, publishes them to the {@link OutboxSink} and deletes them
+ * in the same transaction.
+ */
+@Component
+public class OutboxRelay {
+
+    private final EntityManager em;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final TransactionTemplate tx;
+    private final Counter relayed;
+
+    public OutboxRelay(EntityManager em, OutboxSink sink, OutboxProperties properties,
+                       PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.em = em;
+        this.sink = sink;
+        this.properties = properties;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.relayed = registry.counter("datajpa.outbox.relayed");
+    }
+
+    @Scheduled(fixedDelayString = "${data-jpa.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        if (!properties.isRelayEnabled()) {
+            return;
+        }
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == properties.getBatchSize());
+    }
+
+    /**
+     * @return number of events published
+     */
+    public int relayBatch() {
+        Integer count = tx.execute(status -> {
+            List<OutboxEvent> events = em.createQuery("SELECT e FROM OutboxEvent e ORDER BY e.id", OutboxEvent.class)
+                    .setMaxResults(properties.getBatchSize())
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setHint(SpecHints.HINT_SPEC_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                    .getResultList();
+            if (events.isEmpty()) {
+                return 0;
+            }
+            sink.publish(events);
+            em.createQuery("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+                    .setParameter("ids", events.stream().map(OutboxEvent::getId).toList())
+                    .executeUpdate();
+            return events.size();
+        });
+        relayed.increment(count);
+        return count;
+    }
+}
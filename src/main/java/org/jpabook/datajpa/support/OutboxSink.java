@@ -0,0 +1,14 @@
+package org.jpabook.datajpa.support;
+
+import org.jpabook.datajpa.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Downstream destination of relayed outbox events. Delivery is at-least-once: a batch is published
+ * before its rows are deleted, so a failed commit republishes it.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events);
+}
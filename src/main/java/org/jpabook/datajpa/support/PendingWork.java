@@ -0,0 +1,52 @@
+package org.jpabook.datajpa.support;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.util.function.Supplier;
+
+/**
+ * Work collected during a transaction and written on the session's connection right before commit,
+ * after Hibernate's final flush, so it commits or rolls back with the changes that produced it and
+ * can be fed from entity callbacks running inside a flush.
+ */
+abstract class PendingWork implements BeforeTransactionCompletionProcess {
+
+    /**
+     * The owner's pending work for the current transaction, created on first use. Keyed by session,
+     * so a REQUIRES_NEW transaction gets its own instance.
+     *
+     * @param owner the bean collecting the work, always passed as {@code this}
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends PendingWork> T current(Object owner, SessionImplementor session, Supplier<T> factory) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException(ClassUtils.getUserClass(owner).getSimpleName() + " needs a transaction");
+        }
+        Key key = new Key(owner, session);
+        T work = (T) TransactionSynchronizationManager.getResource(key);
+        if (work == null) {
+            T created = factory.get();
+            TransactionSynchronizationManager.bindResource(key, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Hibernate keeps the process registered after a rollback; make it a no-op
+                    created.discard();
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+            session.getActionQueue().registerProcess(created);
+            work = created;
+        }
+        return work;
+    }
+
+    protected abstract void discard();
+
+    private record Key(Object owner, Object session) {
+    }
+}
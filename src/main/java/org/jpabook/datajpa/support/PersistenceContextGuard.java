@@ -0,0 +1,108 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+
+/**
+ * Checks the managed-entity count of the transaction's session after every repository call and
+ * warns, flushes and clears, or fails once it exceeds {@code data-jpa.persistence-context.max-entities}.
+ * The count is recorded in {@code datajpa.persistence.context.managed}; each breach, from the call that
+ * first crosses the limit until the count drops back under it, increments
+ * {@code datajpa.persistence.context.exceeded} once. {@code FLUSH_CLEAR} only warns inside read-only
+ * transactions, which must not flush. Also attaches a {@link SessionMetricsListener} to each session it sees.
+ */
+@Slf4j
+@Aspect
+@Component
+public class PersistenceContextGuard {
+
+    private static final String LISTENER_MARKER = PersistenceContextGuard.class.getName() + ".listener";
+    private static final String BREACHED_MARKER = PersistenceContextGuard.class.getName() + ".breached";
+
+    private final EntityManager em;
+    private final PersistenceContextProperties properties;
+    private final MeterRegistry registry;
+    private final Timer flushTimer;
+    private final Timer dirtyCheckTimer;
+    private final DistributionSummary flushEntities;
+    private final DistributionSummary managedEntities;
+
+    public PersistenceContextGuard(EntityManager em, PersistenceContextProperties properties, MeterRegistry registry) {
+        this.em = em;
+        this.properties = properties;
+        this.registry = registry;
+        this.flushTimer = Timer.builder("datajpa.session.flush").register(registry);
+        this.dirtyCheckTimer = Timer.builder("datajpa.session.dirty.check")
+                .description("Dirty-check time per flush")
+                .register(registry);
+        this.flushEntities = DistributionSummary.builder("datajpa.session.flush.entities").register(registry);
+        this.managedEntities = DistributionSummary.builder("datajpa.persistence.context.managed")
+                .description("Managed entities in the session after a repository call")
+                .register(registry);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))" +
+            " || execution(public * org.jpabook.datajpa.repository.*JpaRepository.*(..))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.getProperties().get(LISTENER_MARKER) == null) {
+            session.getEventListenerManager().addListener(
+                    new SessionMetricsListener(flushTimer, dirtyCheckTimer, flushEntities));
+            session.setProperty(LISTENER_MARKER, Boolean.TRUE);
+        }
+
+        Object result = joinPoint.proceed();
+
+        int entities = session.getPersistenceContextInternal().getNumberOfManagedEntities();
+        managedEntities.record(entities);
+        boolean breached = Boolean.TRUE.equals(session.getProperties().get(BREACHED_MARKER));
+        if (entities > properties.getMaxEntities()) {
+            exceeded(joinPoint.getSignature().toShortString(), session, entities, breached);
+        } else if (breached) {
+            session.setProperty(BREACHED_MARKER, Boolean.FALSE);
+        }
+        return result;
+    }
+
+    private void exceeded(String origin, SessionImplementor session, int entities, boolean breached) {
+        PersistenceContextProperties.Action action = properties.getAction();
+        if (action == PersistenceContextProperties.Action.FLUSH_CLEAR
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            action = PersistenceContextProperties.Action.WARN;
+        }
+        if (!breached) {
+            registry.counter("datajpa.persistence.context.exceeded", "action", action.name().toLowerCase(Locale.ROOT))
+                    .increment();
+        }
+        switch (action) {
+            case WARN -> {
+                if (!breached) {
+                    session.setProperty(BREACHED_MARKER, Boolean.TRUE);
+                    log.warn("{} managed entities after {} (limit {})", entities, origin, properties.getMaxEntities());
+                }
+            }
+            case FLUSH_CLEAR -> {
+                session.flush();
+                session.clear();
+            }
+            case FAIL -> {
+                session.setProperty(BREACHED_MARKER, Boolean.TRUE);
+                throw new PersistenceContextLimitExceededException(origin, properties.getMaxEntities(), entities);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.jpabook.datajpa.support;
+
+public class PersistenceContextLimitExceededException extends RuntimeException {
+
+    public PersistenceContextLimitExceededException(String origin, int limit, int entities) {
+        super("Persistence context limit exceeded after " + origin + ": " + entities + " managed entities, limit " + limit);
+    }
+}
@@ -0,0 +1,25 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.persistence-context")
+public class PersistenceContextProperties {
+
+    public enum Action {
+        WARN,
+        /**
+         * Flushes and clears the session; entities the caller still holds become detached.
+         * Read-only transactions fall back to {@link #WARN}.
+         */
+        FLUSH_CLEAR,
+        FAIL
+    }
+
+    private int maxEntities = 10_000;
+    private Action action = Action.WARN;
+}
@@ -0,0 +1,80 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE = QueryBudgetInterceptor.class.getName() + ".scope";
+    private static final String ATTACHMENT = QueryBudgetInterceptor.class.getName() + ".attachment";
+
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // resumed after an async handler: report on the scope opened by the initial dispatch
+            if (request.getAttribute(SCOPE) instanceof QueryScope scope) {
+                request.setAttribute(ATTACHMENT, scope.attach());
+            }
+            return true;
+        }
+        if (properties.isEnabled()) {
+            String endpoint = endpoint(request);
+            request.setAttribute(SCOPE, QueryScope.open(endpoint, properties.budgetOf(endpoint),
+                    properties.getRepeatThreshold(), properties.isFailOnExceed()));
+        }
+        return true;
+    }
+
+    /**
+     * The initial dispatch of an async handler ends without {@code afterCompletion}: release the
+     * Tomcat thread's scope now; statements run on {@link JdbcOffload} threads still count towards it.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(SCOPE) instanceof QueryScope scope) {
+            scope.close();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(SCOPE) instanceof QueryScope scope)) {
+            return;
+        }
+        if (request.getAttribute(ATTACHMENT) instanceof QueryScope.Attachment attachment) {
+            attachment.close();
+        } else {
+            scope.close();
+        }
+
+        String endpoint = scope.getName();
+        meterRegistry.summary("datajpa.sql.statements", "endpoint", endpoint).record(scope.getStatements());
+        if (scope.isOverBudget()) {
+            meterRegistry.counter("datajpa.sql.budget.exceeded", "endpoint", endpoint).increment();
+            log.warn("SQL budget exceeded: {} ran {} statements (budget {})",
+                    endpoint, scope.getStatements(), scope.getBudget());
+        }
+        if (scope.isNPlusOneSuspected()) {
+            meterRegistry.counter("datajpa.sql.n_plus_one", "endpoint", endpoint).increment();
+            log.warn("Possible N+1 in {}: {}", endpoint, scope.getRepeatedShapes());
+        }
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+}
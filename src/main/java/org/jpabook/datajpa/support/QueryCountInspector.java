@@ -0,0 +1,13 @@
+package org.jpabook.datajpa.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        StatementCounter.increment();
+        QueryScope.record(sql);
+        return sql;
+    }
+}
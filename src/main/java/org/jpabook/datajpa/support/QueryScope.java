@@ -0,0 +1,117 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while the scope is open,
+ * grouped by statement shape so that repeated identical selects (N+1) stand out.
+ * Scopes are opened per HTTP request by {@link QueryBudgetInterceptor} or directly in tests, and
+ * {@link #attach() attached} to the threads that run part of the request.
+ */
+@Getter
+public class QueryScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+
+    private final String name;
+    private final int budget;
+    private final int repeatThreshold;
+    private final boolean failOnExceed;
+    private final QueryScope parent;
+
+    private int statements;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private QueryScope(String name, int budget, int repeatThreshold, boolean failOnExceed, QueryScope parent) {
+        this.name = name;
+        this.budget = budget;
+        this.repeatThreshold = repeatThreshold;
+        this.failOnExceed = failOnExceed;
+        this.parent = parent;
+    }
+
+    public static QueryScope open(String name, int budget, int repeatThreshold, boolean failOnExceed) {
+        QueryScope scope = new QueryScope(name, budget, repeatThreshold, failOnExceed, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this scope current on the calling thread, for example a worker running part of the
+     * request, until the returned attachment is closed.
+     */
+    public Attachment attach() {
+        QueryScope previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static void record(String sql) {
+        QueryScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.add(sql);
+        }
+    }
+
+    private void add(String sql) {
+        statements++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+        if (failOnExceed && statements > budget) {
+            throw new SqlBudgetExceededException(name, budget, statements);
+        }
+    }
+
+    public boolean isOverBudget() {
+        return statements > budget;
+    }
+
+    public Map<String, Integer> getRepeatedShapes() {
+        return shapes.entrySet().stream()
+                .filter(e -> e.getValue() >= repeatThreshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public boolean isNPlusOneSuspected() {
+        return !getRepeatedShapes().isEmpty();
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    public interface Attachment extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return NUMBER.matcher(shape).replaceAll("?").toLowerCase();
+    }
+}
@@ -0,0 +1,61 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Carries each client's last write time in a cookie, so {@link ReplicaRoutingDataSource} keeps reads on
+ * the primary only for the client that wrote. The cookie expires with the read-your-writes window.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "last-write";
+
+    private final int maxAgeSeconds;
+
+    public ReadYourWritesFilter(Duration readYourWritesWindow) {
+        this.maxAgeSeconds = (int) Math.max(1, (readYourWritesWindow.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (ClientWrites ignored = ClientWrites.open(lastWrite(request), at -> remember(response, at))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private long lastWrite(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void remember(HttpServletResponse response, long at) {
+        if (response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE, Long.toString(at));
+        cookie.setPath("/");
+        cookie.setMaxAge(maxAgeSeconds);
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+}
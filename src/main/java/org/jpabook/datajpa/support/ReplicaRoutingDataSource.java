@@ -0,0 +1,186 @@
+package org.jpabook.datajpa.support;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the connection is fetched after the transaction's read-only flag has been set.
+ * For {@code readYourWritesWindow} after a transaction that wrote commits, reads of the same client
+ * stay on the primary so they see that write even if the replicas lag; other clients keep reading from
+ * the replicas. The client is the {@link ClientWrites} scope of the thread. A primary connection counts
+ * as written to once it prepares or executes a statement other than a query.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_LATENCY
+    }
+
+    private static final double EWMA_WEIGHT = 0.3;
+    private static final Set<String> SQL_METHODS = Set.of(
+            "prepareStatement", "prepareCall", "execute", "executeUpdate", "executeLargeUpdate", "addBatch");
+    private static final Pattern READ = Pattern.compile("^\\s*(select|with|values|explain|show)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Selection selection;
+    private final long windowMillis;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Double> latencies = new ConcurrentHashMap<>();
+    private final Object writeMarkerKey = new Object();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    Selection selection, Duration readYourWritesWindow) {
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+        this.replicaKeys = new ArrayList<>(this.replicas.keySet());
+        this.selection = selection;
+        this.windowMillis = readYourWritesWindow.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || System.currentTimeMillis() - ClientWrites.current().getLastWrite() < windowMillis) {
+            return PRIMARY;
+        }
+        return selection == Selection.LEAST_LATENCY ? leastLatency() : roundRobin();
+    }
+
+    /**
+     * Measures a validation round trip to each replica. Replicas that fail are skipped until they recover.
+     */
+    public void probe() {
+        replicas.forEach((key, dataSource) -> {
+            long start = System.nanoTime();
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isValid(1)) {
+                    throw new SQLException("invalid connection");
+                }
+                double sample = System.nanoTime() - start;
+                latencies.merge(key, sample, (old, now) -> old + EWMA_WEIGHT * (now - old));
+            } catch (SQLException e) {
+                latencies.put(key, Double.POSITIVE_INFINITY);
+            }
+        });
+    }
+
+    public Map<String, Double> getLatencies() {
+        return Map.copyOf(latencies);
+    }
+
+    private String roundRobin() {
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+            if (latencies.getOrDefault(key, 0.0) != Double.POSITIVE_INFINITY) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private String leastLatency() {
+        String best = PRIMARY;
+        double bestLatency = Double.POSITIVE_INFINITY;
+        for (String key : replicaKeys) {
+            double latency = latencies.getOrDefault(key, 0.0);
+            if (latency < bestLatency) {
+                best = key;
+                bestLatency = latency;
+            }
+        }
+        return best;
+    }
+
+    private Connection trackWrites(Connection connection) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        return (Connection) tracking(connection, Connection.class);
+    }
+
+    private Object tracking(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (SQL_METHODS.contains(method.getName()) && args != null && args.length > 0
+                    && args[0] instanceof String sql && !READ.matcher(sql).find()) {
+                markWrite();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return method.getName().equals("createStatement") ? tracking(result, Statement.class) : result;
+        });
+    }
+
+    private void markWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // auto-commit: visible as soon as the statement completes
+            ClientWrites.current().written(System.currentTimeMillis());
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(writeMarkerKey)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarkerKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new WriteMarker(this, ClientWrites.current()));
+    }
+
+    private record WriteMarker(ReplicaRoutingDataSource owner, ClientWrites client) implements TransactionSynchronization {
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(owner.writeMarkerKey);
+            if (status == STATUS_COMMITTED) {
+                client.written(System.currentTimeMillis());
+            }
+        }
+    }
+}
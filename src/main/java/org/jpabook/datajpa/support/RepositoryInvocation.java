@@ -0,0 +1,55 @@
+package org.jpabook.datajpa.support;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * The repository method currently executing on this thread, innermost call wins.
+ */
+public final class RepositoryInvocation {
+
+    private static final ThreadLocal<RepositoryInvocation> CURRENT = new ThreadLocal<>();
+
+    private final Object target;
+    private final Method method;
+    private final RepositoryInvocation previous;
+
+    private RepositoryInvocation(Object target, Method method, RepositoryInvocation previous) {
+        this.target = target;
+        this.method = method;
+        this.previous = previous;
+    }
+
+    static RepositoryInvocation enter(Object target, Method method) {
+        RepositoryInvocation invocation = new RepositoryInvocation(target, method, CURRENT.get());
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    void exit() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * @return e.g. {@code MemberRepository.findUser}, or {@code null} outside a repository call
+     */
+    public static String describeCurrent() {
+        RepositoryInvocation invocation = CURRENT.get();
+        return invocation == null ? null : repositoryName(invocation.target) + "." + invocation.method.getName();
+    }
+
+    static String repositoryName(Object target) {
+        if (target instanceof Advised) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+            return interfaces[0].getSimpleName();
+        }
+        return ClassUtils.getUserClass(target).getSimpleName();
+    }
+}
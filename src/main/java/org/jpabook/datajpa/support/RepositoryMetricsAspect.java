@@ -0,0 +1,167 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times every repository call and records rows returned and SQL statements issued per call,
+ * plus the number of managed entities when a transaction that used a repository commits.
+ * Can be switched off at runtime through the {@code repositorymetrics} actuator endpoint;
+ * the current {@link RepositoryInvocation} is tracked either way.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final EntityManager em;
+    private final AtomicBoolean enabled = new AtomicBoolean(true);
+    private final Map<Key, Meters> meters = new ConcurrentHashMap<>();
+    private final DistributionSummary managedEntities;
+
+    public RepositoryMetricsAspect(MeterRegistry registry, EntityManager em) {
+        this.registry = registry;
+        this.em = em;
+        this.managedEntities = DistributionSummary.builder("datajpa.persistence.context.entities")
+                .description("Managed entities at commit")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled.get();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled.set(enabled);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))" +
+            " || execution(public * org.jpabook.datajpa.repository.*JpaRepository.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object target = joinPoint.getTarget();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RepositoryInvocation invocation = RepositoryInvocation.enter(target, method);
+        try {
+            return enabled.get() ? record(joinPoint, target, method) : joinPoint.proceed();
+        } finally {
+            invocation.exit();
+        }
+    }
+
+    private Object record(ProceedingJoinPoint joinPoint, Object target, Method method) throws Throwable {
+        Meters meter = meters.computeIfAbsent(new Key(target.getClass(), method),
+                key -> new Meters(registry, RepositoryInvocation.repositoryName(target), method.getName()));
+        registerCommitHook();
+
+        long statements = StatementCounter.current();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            meter.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            long rows = rows(result);
+            if (rows >= 0) {
+                meter.rows.record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            meter.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            meter.statements.record(StatementCounter.current() - statements);
+        }
+    }
+
+    private long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Registers one {@link CommitHook} per transaction; the aspect itself is bound as the marker
+     * resource, so later calls in the same transaction only do a map lookup.
+     */
+    private void registerCommitHook() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new CommitHook());
+    }
+
+    private class CommitHook implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            managedEntities.record(em.unwrap(SessionImplementor.class)
+                    .getPersistenceContextInternal()
+                    .getNumberOfManagedEntities());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(RepositoryMetricsAspect.this);
+        }
+    }
+
+    private record Key(Class<?> targetClass, Method method) {
+    }
+
+    private static class Meters {
+
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+
+        Meters(MeterRegistry registry, String repository, String name) {
+            this.success = timer(registry, repository, name, "success");
+            this.error = timer(registry, repository, name, "error");
+            this.rows = DistributionSummary.builder("datajpa.repository.rows")
+                    .tag("repository", repository)
+                    .tag("method", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.statements = DistributionSummary.builder("datajpa.repository.statements")
+                    .tag("repository", repository)
+                    .tag("method", name)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String repository, String method, String outcome) {
+            return Timer.builder("datajpa.repository.invocations")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
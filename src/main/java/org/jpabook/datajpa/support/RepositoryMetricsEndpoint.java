@@ -0,0 +1,28 @@
+package org.jpabook.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "repositorymetrics")
+@RequiredArgsConstructor
+public class RepositoryMetricsEndpoint {
+
+    private final RepositoryMetricsAspect repositoryMetricsAspect;
+
+    @ReadOperation
+    public Map<String, Boolean> status() {
+        return Map.of("enabled", repositoryMetricsAspect.isEnabled());
+    }
+
+    @WriteOperation
+    public Map<String, Boolean> toggle(boolean enabled) {
+        repositoryMetricsAspect.setEnabled(enabled);
+        return status();
+    }
+}
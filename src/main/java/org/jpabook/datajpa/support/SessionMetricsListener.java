@@ -0,0 +1,51 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-session listener recording flush time, dirty-check time accumulated over a flush, and the
+ * number of entities each flush visited.
+ */
+class SessionMetricsListener implements SessionEventListener {
+
+    private final Timer flushTimer;
+    private final Timer dirtyCheckTimer;
+    private final DistributionSummary flushEntities;
+
+    private long flushStart;
+    private long dirtyCheckStart;
+    private long dirtyCheckNanos;
+
+    SessionMetricsListener(Timer flushTimer, Timer dirtyCheckTimer, DistributionSummary flushEntities) {
+        this.flushTimer = flushTimer;
+        this.dirtyCheckTimer = dirtyCheckTimer;
+        this.flushEntities = flushEntities;
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+        dirtyCheckNanos = 0;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushTimer.record(System.nanoTime() - flushStart, TimeUnit.NANOSECONDS);
+        dirtyCheckTimer.record(dirtyCheckNanos, TimeUnit.NANOSECONDS);
+        flushEntities.record(numberOfEntities);
+    }
+
+    @Override
+    public void dirtyCalculationStart() {
+        dirtyCheckStart = System.nanoTime();
+    }
+
+    @Override
+    public void dirtyCalculationEnd(boolean dirty) {
+        dirtyCheckNanos += System.nanoTime() - dirtyCheckStart;
+    }
+}
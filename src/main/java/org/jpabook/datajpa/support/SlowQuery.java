@@ -0,0 +1,11 @@
+package org.jpabook.datajpa.support;
+
+import java.time.Instant;
+
+/**
+ * @param sql    statement with bind values inlined
+ * @param origin repository method that issued it, {@code null} when called outside a repository
+ * @param plan   H2 {@code EXPLAIN} output, {@code null} for non-SELECT statements or when explain is off
+ */
+public record SlowQuery(Instant at, long elapsedMillis, String sql, String origin, String plan, String error) {
+}
@@ -0,0 +1,71 @@
+package org.jpabook.datajpa.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy listener that records statements slower than {@code data-jpa.slow-query.threshold}.
+ * When {@code explain} is enabled, SELECTs are passed to H2's plain {@code EXPLAIN} on the same
+ * raw connection. The plan is only compiled, never executed, so a slow query is not run twice
+ * and {@code FOR UPDATE} takes no locks.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener extends SimpleJdbcEventListener {
+
+    private final SlowQueryProperties properties;
+    private final SlowQueryLog slowQueryLog;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!properties.isEnabled()
+                || timeElapsedNanos < properties.getThreshold().toNanos()
+                || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+        String sql = statementInformation.getSqlWithValues();
+        String origin = RepositoryInvocation.describeCurrent();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+        String plan = properties.isExplain() && isSelect(sql)
+                ? explain(statementInformation.getConnectionInformation().getConnection(), sql)
+                : null;
+
+        log.warn("slow query {}ms [{}]: {}", elapsedMillis, origin, sql);
+        slowQueryLog.add(new SlowQuery(Instant.now(), elapsedMillis, sql, origin, plan,
+                e == null ? null : e.getMessage()));
+    }
+
+    private boolean isSelect(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+
+    private String explain(Connection connection, String sql) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        } catch (SQLException ex) {
+            log.debug("EXPLAIN failed for {}", sql, ex);
+            return "EXPLAIN failed: " + ex.getMessage();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.jpabook.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded ring buffer of the most recent slow statements.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowQueryLog {
+
+    private final SlowQueryProperties properties;
+    private final Deque<SlowQuery> entries = new ArrayDeque<>();
+
+    public synchronized void add(SlowQuery slowQuery) {
+        while (entries.size() >= Math.max(properties.getBufferSize(), 1)) {
+            entries.removeFirst();
+        }
+        entries.addLast(slowQuery);
+    }
+
+    /**
+     * @return newest first
+     */
+    public synchronized List<SlowQuery> entries() {
+        List<SlowQuery> result = new ArrayList<>(entries.size());
+        entries.descendingIterator().forEachRemaining(result::add);
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,26 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+    private Duration threshold = Duration.ofMillis(200);
+    /**
+     * Fraction of slow statements that are recorded, 0.0 to 1.0.
+     */
+    private double sampleRate = 1.0;
+    /**
+     * Attach an H2 {@code EXPLAIN} plan to slow SELECTs; off by default.
+     */
+    private boolean explain = false;
+    private int bufferSize = 100;
+}
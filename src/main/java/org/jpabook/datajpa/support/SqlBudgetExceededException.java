@@ -0,0 +1,8 @@
+package org.jpabook.datajpa.support;
+
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String scope, int budget, int statements) {
+        super("SQL budget exceeded for " + scope + ": " + statements + " statements, budget " + budget);
+    }
+}
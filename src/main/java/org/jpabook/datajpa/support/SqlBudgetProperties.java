@@ -0,0 +1,25 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.sql-budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+    private int defaultBudget = 50;
+    private int repeatThreshold = 10;
+    private boolean failOnExceed = false;
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetOf(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultBudget);
+    }
+}
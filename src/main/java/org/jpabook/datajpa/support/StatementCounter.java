@@ -0,0 +1,21 @@
+package org.jpabook.datajpa.support;
+
+/**
+ * Running count of SQL statements prepared on the current thread, always on.
+ * Callers take the difference of two readings.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {
+    }
+
+    static void increment() {
+        COUNT.get()[0]++;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
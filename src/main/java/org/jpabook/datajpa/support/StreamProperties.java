@@ -0,0 +1,17 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.stream")
+public class StreamProperties {
+
+    /**
+     * JDBC fetch size of streamed exports, also the number of rows written between flushes.
+     */
+    private int fetchSize = 500;
+}
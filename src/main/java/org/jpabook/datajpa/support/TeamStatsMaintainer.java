@@ -0,0 +1,318 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.query.NativeQuery;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@link org.jpabook.datajpa.entity.TeamStats} in step with Member and Team writes.
+ * Entity inserts, updates and deletes are turned into per-team count and age-sum deltas, which are
+ * applied before commit as {@code member_count = member_count + ?} updates (see {@link PendingWork}),
+ * so concurrent writers to the same team never lose an increment. A team whose row is missing, or a
+ * change whose old state is unknown, is recomputed from {@code member} instead.
+ * <p>
+ * Set-based statements bypass the entity events: {@link #agePlus} must run before a bulk age update,
+ * {@link #rebuild} after each range of a bulk reassign or member delete, in that range's transaction, and
+ * {@link #remove} after a team delete.
+ * {@link #rebuildAll} repairs drift; it can be scheduled with {@code data-jpa.team-stats.rebuild-cron},
+ * which should be set on one node only since concurrent full rebuilds collide on {@code team_stats} keys.
+ * The listeners are registered by {@link EventListenerIntegrator}; with {@code data-jpa.team-stats.enabled}
+ * off none is registered and the bulk hooks do nothing.
+ */
+@Slf4j
+@Component
+public class TeamStatsMaintainer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String APPLY_DELTA = "UPDATE team_stats" +
+            " SET member_count = member_count + ?, age_sum = age_sum + ? WHERE team_id = ?";
+    private static final String DELETE = "DELETE FROM team_stats WHERE team_id = ?";
+    private static final String RECOMPUTE = "INSERT INTO team_stats (team_id, member_count, age_sum)" +
+            " SELECT t.team_id, COUNT(m.member_id), COALESCE(SUM(m.age), 0)" +
+            " FROM team t LEFT JOIN member m ON m.team_id = t.team_id";
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final TeamStatsProperties properties;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public TeamStatsMaintainer(EntityManager em, PlatformTransactionManager transactionManager,
+                               TeamStatsProperties properties) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            pending(event.getSession()).add(teamId(persister, event.getState()), 1, age(persister, event.getState()));
+        } else if (event.getEntity() instanceof Team) {
+            pending(event.getSession()).add((Long) event.getId(), 0, 0);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long teamId = teamId(persister, event.getState());
+        int age = age(persister, event.getState());
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            pending(event.getSession()).recompute(teamId);
+            return;
+        }
+        Long oldTeamId = teamId(persister, oldState);
+        int oldAge = age(persister, oldState);
+        if (Objects.equals(teamId, oldTeamId) && age == oldAge) {
+            return;
+        }
+        Pending pending = pending(event.getSession());
+        pending.add(oldTeamId, -1, -oldAge);
+        pending.add(teamId, 1, age);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            Object[] state = event.getDeletedState();
+            pending(event.getSession()).add(teamId(persister, state), -1, -age(persister, state));
+        } else if (event.getEntity() instanceof Team) {
+            pending(event.getSession()).delete((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Adds one year to the age sum of every team, counting its members aged {@code age} or more.
+     * Call inside the transaction, before the bulk update of {@code member.age} it mirrors.
+     */
+    public void agePlus(int age) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        em.flush();
+        // rows for teams created in this transaction must exist before the set-based update
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        pending(session).apply(session);
+        em.createNativeQuery("UPDATE team_stats s SET age_sum = age_sum +" +
+                        " (SELECT COUNT(*) FROM member m WHERE m.team_id = s.team_id AND m.age >= :age)" +
+                        " WHERE EXISTS (SELECT 1 FROM member m WHERE m.team_id = s.team_id AND m.age >= :age)")
+                .setParameter("age", age)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("team_stats")
+                .executeUpdate();
+    }
+
+    /**
+     * Recomputes the given teams from {@code member}, in the caller's transaction if there is one.
+     */
+    public void rebuild(Collection<Long> teamIds) {
+        if (!properties.isEnabled() || teamIds.isEmpty()) {
+            return;
+        }
+        tx.executeWithoutResult(status -> {
+            // the recount includes this transaction's flushed changes, so their deltas must not apply again
+            em.flush();
+            pending(em.unwrap(SessionImplementor.class)).forget(teamIds);
+            nativeQuery("DELETE FROM team_stats WHERE team_id IN (:ids)")
+                    .setParameter("ids", teamIds)
+                    .executeUpdate();
+            nativeQuery(RECOMPUTE + " WHERE t.team_id IN (:ids) GROUP BY t.team_id")
+                    .setParameter("ids", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    /**
+     * Drops the rows of deleted teams, in the caller's transaction if there is one.
+     */
+    public void remove(Collection<Long> teamIds) {
+        if (!properties.isEnabled() || teamIds.isEmpty()) {
+            return;
+        }
+        tx.executeWithoutResult(status -> nativeQuery("DELETE FROM team_stats WHERE team_id IN (:ids)")
+                .setParameter("ids", teamIds)
+                .executeUpdate());
+    }
+
+    /**
+     * Recomputes every team and drops rows of teams that no longer exist. Skipped, returning -1,
+     * while another full rebuild is running on this node.
+     *
+     * @return number of teams
+     */
+    @Scheduled(cron = "${data-jpa.team-stats.rebuild-cron:-}")
+    public int rebuildAll() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.warn("Team stats rebuild already running, skipped");
+            return -1;
+        }
+        try {
+            return doRebuildAll();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private int doRebuildAll() {
+        Integer teams = tx.execute(status -> {
+            em.flush();
+            pending(em.unwrap(SessionImplementor.class)).discard();
+            nativeQuery("DELETE FROM team_stats").executeUpdate();
+            return nativeQuery(RECOMPUTE + " GROUP BY t.team_id").executeUpdate();
+        });
+        log.info("Rebuilt team stats for {} teams", teams);
+        return teams;
+    }
+
+    private NativeQuery<?> nativeQuery(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("team_stats");
+    }
+
+    private Pending pending(SessionImplementor session) {
+        return PendingWork.current(this, session, Pending::new);
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getPropertyIndex("age")];
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[persister.getPropertyIndex("team")];
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    private static class Pending extends PendingWork {
+
+        /** teamId -> {member count delta, age sum delta}, applied in id order to keep lock order stable */
+        private final Map<Long, long[]> deltas = new TreeMap<>();
+        private final Set<Long> recompute = new TreeSet<>();
+        private final Set<Long> deleted = new TreeSet<>();
+
+        void add(Long teamId, long members, long ages) {
+            if (teamId != null) {
+                long[] delta = deltas.computeIfAbsent(teamId, id -> new long[2]);
+                delta[0] += members;
+                delta[1] += ages;
+            }
+        }
+
+        void recompute(Long teamId) {
+            if (teamId != null) {
+                recompute.add(teamId);
+            }
+        }
+
+        void delete(Long teamId) {
+            deleted.add(teamId);
+        }
+
+        void forget(Collection<Long> teamIds) {
+            deltas.keySet().removeAll(teamIds);
+            recompute.removeAll(teamIds);
+        }
+
+        @Override
+        protected void discard() {
+            deltas.clear();
+            recompute.clear();
+            deleted.clear();
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            apply(session);
+        }
+
+        void apply(SessionImplementor session) {
+            deltas.keySet().removeAll(recompute);
+            deltas.keySet().removeAll(deleted);
+            recompute.removeAll(deleted);
+            if (deltas.isEmpty() && recompute.isEmpty() && deleted.isEmpty()) {
+                return;
+            }
+            session.doWork(connection -> {
+                if (!deltas.isEmpty()) {
+                    List<Long> teamIds = new ArrayList<>(deltas.keySet());
+                    int[] updated;
+                    try (PreparedStatement update = connection.prepareStatement(APPLY_DELTA)) {
+                        for (Long teamId : teamIds) {
+                            long[] delta = deltas.get(teamId);
+                            update.setLong(1, delta[0]);
+                            update.setLong(2, delta[1]);
+                            update.setLong(3, teamId);
+                            update.addBatch();
+                        }
+                        updated = update.executeBatch();
+                    }
+                    for (int i = 0; i < updated.length; i++) {
+                        if (updated[i] == 0) {
+                            recompute.add(teamIds.get(i));
+                        }
+                    }
+                }
+                // recomputing after the final flush sees this transaction's own member changes
+                Set<Long> removals = new TreeSet<>(recompute);
+                removals.addAll(deleted);
+                batch(connection, DELETE, removals);
+                batch(connection, RECOMPUTE + " WHERE t.team_id = ? GROUP BY t.team_id", recompute);
+            });
+            discard();
+        }
+
+        private static void batch(Connection connection, String sql, Set<Long> teamIds) throws SQLException {
+            if (teamIds.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Long teamId : teamIds) {
+                    statement.setLong(1, teamId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.jpabook.datajpa.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties("data-jpa.team-stats")
+public class TeamStatsProperties {
+
+    /**
+     * Maintain {@code team_stats} on every Member and Team write. When off, the rows go stale until
+     * {@link TeamStatsMaintainer#rebuildAll} runs.
+     */
+    private boolean enabled = true;
+}
@@ -0,0 +1,36 @@
+package org.jpabook.datajpa.controller;
+
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.jpabook.datajpa.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class MemberControllerTest {
+
+    @Autowired
+    MemberController memberController;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void findMemberServedFromSecondLevelCache() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("cached1", 1530)).getId();
+        memberController.findMember(id);
+        long before = StatementCounter.current();
+
+        //when
+        String username = memberController.findMember(id);
+
+        //then
+        assertEquals(username, "cached1");
+        assertEquals(StatementCounter.current() - before, 0L);
+        memberRepository.deleteById(id);
+    }
+}
@@ -0,0 +1,75 @@
+package org.jpabook.datajpa.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemberCursorTest {
+
+    @Test
+    public void roundTripUsernameWithSeparator() throws Exception {
+        //given
+        ScrollPosition position = ScrollPosition.forward(Map.of("username", "line1\nline2", "id", 7L));
+
+        //when
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.encode(MemberCursor.BY_USERNAME, position));
+
+        //then
+        assertEquals(cursor.getOrder(), MemberCursor.BY_USERNAME);
+        Map<String, Object> keys = ((KeysetScrollPosition) cursor.getPosition()).getKeys();
+        assertEquals(keys.get("username"), "line1\nline2");
+        assertEquals(keys.get("id"), 7L);
+    }
+
+    @Test
+    public void roundTripNullUsername() throws Exception {
+        //given
+        Map<String, Object> lastRow = new HashMap<>();
+        lastRow.put("username", null);
+        lastRow.put("id", 7L);
+        ScrollPosition position = ScrollPosition.forward(lastRow);
+
+        //when
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.encode(MemberCursor.BY_USERNAME, position));
+
+        //then
+        Map<String, Object> keys = ((KeysetScrollPosition) cursor.getPosition()).getKeys();
+        assertTrue(keys.containsKey("username"));
+        assertNull(keys.get("username"));
+        assertEquals(keys.get("id"), 7L);
+    }
+
+    @Test
+    public void roundTripLiteralNullUsername() throws Exception {
+        //given
+        ScrollPosition position = ScrollPosition.forward(Map.of("username", "null", "id", 7L));
+
+        //when
+        MemberCursor cursor = MemberCursor.decode(MemberCursor.encode(MemberCursor.BY_USERNAME, position));
+
+        //then
+        Map<String, Object> keys = ((KeysetScrollPosition) cursor.getPosition()).getKeys();
+        assertEquals(keys.get("username"), "null");
+    }
+
+    @Test
+    public void rejectUnknownOrder() throws Exception {
+        //given
+        String token = Base64.getUrlEncoder().encodeToString("name\nnot-a-number".getBytes(StandardCharsets.UTF_8));
+
+        //when
+        //then
+        assertThrows(ResponseStatusException.class, () -> MemberCursor.decode(token));
+    }
+}
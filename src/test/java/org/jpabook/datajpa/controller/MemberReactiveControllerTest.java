@@ -0,0 +1,66 @@
+package org.jpabook.datajpa.controller;
+
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberReactiveControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void listMatchesBlockingController() throws Exception {
+        //given: the newest members, so the page holds only rows without a team
+        saved.add(memberRepository.save(new Member("rx1", 1520)).getId());
+        saved.add(memberRepository.save(new Member("rx2", 1521)).getId());
+
+        //when
+        String blocking = mockMvc.perform(get("/members").param("size", "2").param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        MvcResult started = mockMvc.perform(get("/rx/members").param("size", "2").param("sort", "id,desc"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String reactive = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //then
+        assertEquals(reactive, blocking);
+    }
+
+    @Test
+    public void listRejectsUnknownSort() throws Exception {
+        //when then
+        mockMvc.perform(get("/rx/members").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+}
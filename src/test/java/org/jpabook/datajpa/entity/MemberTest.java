@@ -10,9 +10,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 @SpringBootTest
 @Transactional
@@ -76,4 +79,39 @@ class MemberTest {
         System.out.println("findMember.getCreatedBy() = " + findMember.getCreatedBy());
         System.out.println("findMember.getLastModifiedBy() = " + findMember.getLastModifiedBy());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void auditSnapshotPerFlush() throws Exception {
+        //given
+        Member member1 = memberRepository.save(new Member("member1"));
+        Thread.sleep(10);
+        Member member2 = memberRepository.save(new Member("member2"));
+        em.flush();
+
+        //when
+        Thread.sleep(10);
+        Member member3 = memberRepository.save(new Member("member3"));
+        em.flush();
+
+        //then
+        assertEquals(member1.getCreateDate(), member2.getCreateDate());
+        assertEquals(member1.getCreatedBy(), member3.getCreatedBy());
+        assertNotEquals(member1.getCreateDate(), member3.getCreateDate());
+    }
+
+    @Test
+    @Rollback
+    public void auditTimestampTakenAtFlush() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("member1"));
+        Thread.sleep(10);
+        LocalDateTime beforeFlush = LocalDateTime.now();
+
+        //when
+        em.flush();
+
+        //then
+        assertFalse(member.getCreateDate().isBefore(beforeFlush));
+        assertEquals(member.getLastModifiedDate(), member.getCreateDate());
+    }
+}
@@ -0,0 +1,62 @@
+package org.jpabook.datajpa.repository;
+
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Opt-in load benchmark: {@code ./gradlew test --tests '*BatchInsertBenchmarkTest' -Dbenchmark=true}.
+ * Row and team counts can be overridden with {@code -Dbenchmark.rows} and {@code -Dbenchmark.teams}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchInsertBenchmarkTest {
+
+    private static final int CHUNK = 1_000;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void loadMembersWithTeams() throws Exception {
+        //given
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        int teams = Integer.getInteger("benchmark.teams", 1_000);
+        long before = memberRepository.count();
+
+        List<Team> teamList = new ArrayList<>();
+        for (int i = 0; i < teams; i++) {
+            teamList.add(new Team("team" + i));
+        }
+
+        //when
+        long start = System.nanoTime();
+        int saved = 0;
+        List<Member> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < rows; i++) {
+            Team team = teamList.get(i % teams);
+            Member member = new Member("member" + i, i % 100);
+            member.setTeam(team);
+            chunk.add(member);
+            if (chunk.size() == CHUNK) {
+                saved += memberRepository.saveAllBatched(chunk, CHUNK);
+                chunk.clear();
+            }
+        }
+        saved += memberRepository.saveAllBatched(chunk, CHUNK);
+        long elapsed = System.nanoTime() - start;
+
+        //then
+        System.out.printf("saveAllBatched: %d rows in %d ms (%.0f rows/sec)%n",
+                saved, elapsed / 1_000_000, saved / (elapsed / 1_000_000_000.0));
+        assertEquals(memberRepository.count() - before, rows);
+    }
+}
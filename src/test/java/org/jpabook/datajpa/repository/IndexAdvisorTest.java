@@ -0,0 +1,146 @@
+package org.jpabook.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jpabook.datajpa.dto.MemberSummary;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.support.SlowQuery;
+import org.jpabook.datajpa.support.SlowQueryLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every filtering Member query method against a seeded table with every statement captured
+ * by the slow-query log, then fails on any plan that table-scans a table holding more than
+ * {@link #ROW_THRESHOLD} rows. Plain {@code EXPLAIN} reports no scan counts, so the table size is
+ * looked up instead. The query methods are enumerated from the repository types, so a new one fails
+ * the test until it is exercised here or listed in {@link #UNFILTERED}.
+ */
+@SpringBootTest(properties = {
+        "data-jpa.slow-query.threshold=0ms",
+        "data-jpa.slow-query.explain=true",
+        "data-jpa.slow-query.buffer-size=1000"
+})
+@Transactional
+class IndexAdvisorTest {
+
+    private static final int ROWS = 2000;
+    private static final int ROW_THRESHOLD = 500;
+    private static final Pattern TABLE_SCAN = Pattern.compile("(\\S+)\\.tableScan \\*/");
+    private static final List<Class<?>> REPOSITORIES =
+            List.of(MemberRepository.class, MemberRepositoryCustom.class, MemberJpaRepository.class);
+    /**
+     * Query methods that read the whole table by design, where a scan is expected.
+     */
+    private static final Set<String> UNFILTERED = Set.of("findAll", "count", "findUsernameList", "findMemberDto",
+            "findMemberDtoPage", "findAllBy", "findMemberFetchJoin", "findMemberCustom", "findPage", "findAllWith",
+            "findPageWith", "findPageFields", "streamMembers", "streamMemberDto");
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void declaredQueriesUseIndexes() throws Exception {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            members.add(new Member("advisor" + i, 1000 + i % 50));
+        }
+        memberRepository.saveAllBatched(members, 500);
+        em.clear();
+        slowQueryLog.clear();
+
+        //when
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findUser", () -> memberRepository.findUser("advisor15", 1015));
+        queries.put("findByUsernameAndAgeGreaterThan", () -> {
+            memberRepository.findByUsernameAndAgeGreaterThan("advisor15", 1000);
+            memberJpaRepository.findByUsernameAndAgeGreaterThan("advisor15", 1000);
+        });
+        queries.put("findUsernameById", () -> memberRepository.findUsernameById(members.get(0).getId()));
+        queries.put("findByAge", () -> {
+            memberRepository.findByAge(1015, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "username")));
+            memberRepository.findByAge(1015, PageRequest.of(0, 10, Sort.by("username")), MemberSummary.class);
+            memberRepository.findByAge(1015, ScrollPosition.keyset(), Sort.by("username", "id"), Limit.of(10));
+        });
+        queries.put("findAllByIdIn", () -> memberRepository.findAllByIdIn(
+                List.of(members.get(0).getId(), members.get(1).getId())));
+        queries.put("findPageByAge", () -> memberRepository.findPageByAge(1015,
+                PageRequest.of(1, 10, Sort.by("username"))));
+        queries.put("findSliceByAge", () -> memberRepository.findSliceByAge(1015,
+                PageRequest.of(1, 10, Sort.by("username"))));
+        queries.put("findPageByAgeWith", () -> memberRepository.findPageByAgeWith(1015, FetchPlan.NONE,
+                PageRequest.of(1, 10, Sort.by("username"))));
+        queries.put("findById", () -> memberJpaRepository.findById(members.get(2).getId()));
+        queries.put("find", () -> memberJpaRepository.find(members.get(3).getId()));
+        queries.put("findByPage", () -> memberJpaRepository.findByPage(1015, 0, 10));
+        queries.put("findByPageAfter", () -> memberJpaRepository.findByPageAfter(1015, "advisor999",
+                Long.MAX_VALUE, 10));
+        queries.put("totalCount", () -> memberJpaRepository.totalCount(1015));
+        queries.values().forEach(Runnable::run);
+
+        //then
+        Set<String> uncovered = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String name = method.getName();
+                if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+                        && !name.matches("(save|delete|bulk|import).*")
+                        && !UNFILTERED.contains(name) && !queries.containsKey(name)) {
+                    uncovered.add(repository.getSimpleName() + "." + name);
+                }
+            }
+        }
+        assertTrue(uncovered.isEmpty(), () -> "query methods not exercised: " + uncovered);
+
+        List<SlowQuery> entries = slowQueryLog.entries();
+        assertFalse(entries.isEmpty());
+        List<String> scans = new ArrayList<>();
+        for (SlowQuery query : entries) {
+            assertTrue(query.plan() == null || !query.plan().startsWith("EXPLAIN failed"),
+                    () -> query.plan() + "\n" + query.sql());
+            Matcher matcher = TABLE_SCAN.matcher(query.plan() == null ? "" : query.plan());
+            while (matcher.find()) {
+                long rows = rowCount(matcher.group(1));
+                if (rows > ROW_THRESHOLD) {
+                    scans.add(query.origin() + " scans " + matcher.group(1) + " (" + rows + " rows)\n"
+                            + query.plan());
+                }
+            }
+        }
+        assertTrue(scans.isEmpty(), () -> String.join("\n\n", scans));
+    }
+
+    private long rowCount(String table) {
+        return ((Number) em.createNativeQuery("select count(*) from " + table).getSingleResult()).longValue();
+    }
+}
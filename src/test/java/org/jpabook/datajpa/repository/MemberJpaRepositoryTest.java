@@ -95,6 +95,27 @@ class MemberJpaRepositoryTest {
         assertEquals(totalCount, 5);
     }
 
+    @Test
+    public void findByPageAfter() throws Exception {
+        //given
+        memberJpaRepository.save(new Member("member1", 10));
+        memberJpaRepository.save(new Member("member2", 10));
+        memberJpaRepository.save(new Member("member3", 10));
+        memberJpaRepository.save(new Member("member4", 10));
+        memberJpaRepository.save(new Member("member5", 10));
+
+        //when
+        List<Member> first = memberJpaRepository.findByPage(10, 0, 3);
+        Member last = first.get(first.size() - 1);
+        List<Member> next = memberJpaRepository.findByPageAfter(10, last.getUsername(), last.getId(), 3);
+
+        //then
+        assertEquals(last.getUsername(), "member3");
+        assertEquals(next.size(), 2);
+        assertEquals(next.get(0).getUsername(), "member2");
+        assertEquals(next.get(1).getUsername(), "member1");
+    }
+
     @Test
     public void bulkAgePlus() throws Exception {
         //given
@@ -1,21 +1,48 @@
 package org.jpabook.datajpa.repository;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.BatchFetchQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
 import org.jpabook.datajpa.dto.MemberDto;
+import org.jpabook.datajpa.dto.MemberSummary;
 import org.jpabook.datajpa.entity.Member;
 import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.support.QueryScope;
+import org.jpabook.datajpa.support.SqlBudgetExceededException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -28,6 +55,12 @@ class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @PersistenceContext
     EntityManager em;
 
@@ -99,6 +132,15 @@ class MemberRepositoryTest {
         assertEquals(result.get(0), m1);
     }
 
+    @Test
+    public void findUsernameById() throws Exception {
+        Member m1 = memberRepository.save(new Member("AAA", 10));
+
+        String username = memberRepository.findUsernameById(m1.getId()).get();
+
+        assertEquals(username, "AAA");
+    }
+
     @Test
     public void findUsernameList() throws Exception {
         Member m1 = new Member("AAA", 10);
@@ -155,6 +197,96 @@ class MemberRepositoryTest {
         assertTrue(page.hasNext());
     }
 
+    @Test
+    public void findPageByAge() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+        memberRepository.save(new Member("member5", 10));
+
+        //when
+        Page<Member> first = memberRepository.findPageByAge(10, PageRequest.of(0, 3, Sort.by("username")));
+        Page<Member> last = memberRepository.findPageByAge(10, PageRequest.of(1, 3, Sort.by("username")));
+
+        //then
+        assertEquals(first.getContent().size(), 3);
+        assertEquals(first.getTotalElements(), 5);
+        assertTrue(first.hasNext());
+        assertEquals(last.getContent().size(), 2);
+        assertEquals(last.getTotalElements(), 5);
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    public void scrollByKeyset() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+        memberRepository.save(new Member("member5", 10));
+
+        Sort sort = Sort.by("username", "id");
+
+        //when
+        Window<Member> first = memberRepository.findByAge(10, ScrollPosition.keyset(), sort, Limit.of(3));
+        Window<Member> second = memberRepository.findByAge(10, first.positionAt(first.size() - 1), sort, Limit.of(3));
+
+        //then
+        assertEquals(first.size(), 3);
+        assertTrue(first.hasNext());
+        assertEquals(first.getContent().get(0).getUsername(), "member1");
+        assertEquals(second.size(), 2);
+        assertFalse(second.hasNext());
+        assertEquals(second.getContent().get(0).getUsername(), "member4");
+    }
+
+    @Test
+    public void streamMembers() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamMembers(2)) {
+            members = stream.toList();
+        }
+
+        //then
+        assertEquals(members.size(), 5);
+        assertFalse(em.contains(members.get(0)));
+        assertTrue(em.contains(members.get(4)));
+    }
+
+    @Test
+    public void streamMembersKeepsManagedEntities() throws Exception {
+        //given
+        Long firstId = memberRepository.save(new Member("member0", 10)).getId();
+        for (int i = 1; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+        em.flush();
+        em.clear();
+        Member managed = memberRepository.findById(firstId).orElseThrow();
+
+        //when
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamMembers(2)) {
+            members = stream.toList();
+        }
+
+        //then
+        assertSame(members.get(0), managed);
+        assertTrue(em.contains(managed));
+        assertFalse(em.contains(members.get(1)));
+    }
+
     @Test
     public void bulkAgePlus() throws Exception {
         //given
@@ -171,6 +303,89 @@ class MemberRepositoryTest {
         assertEquals(resultCount, 3);
     }
 
+    @Test
+    public void bulkReassignTeam() throws Exception {
+        //given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamA));
+        memberRepository.save(new Member("member3", 10, teamA));
+        Member other = memberRepository.save(new Member("member4", 10, teamB));
+        em.flush();
+
+        //when
+        int resultCount = memberRepository.bulkReassignTeam(teamA.getId(), teamB.getId(), 2);
+
+        //then
+        assertEquals(resultCount, 3);
+        assertFalse(em.contains(member1));
+        assertTrue(em.contains(other));
+        assertEquals(memberRepository.findById(member1.getId()).get().getTeam().getId(), teamB.getId());
+    }
+
+    @Test
+    public void bulkDeleteByAgeLessThan() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        Member young = memberRepository.save(new Member("member1", -2, team));
+        Member younger = memberRepository.save(new Member("member2", -3, team));
+        Member old = memberRepository.save(new Member("member3", 10, team));
+        em.flush();
+
+        //when
+        int deleted = memberRepository.bulkDeleteByAgeLessThan(-1, 1);
+
+        //then
+        assertEquals(deleted, 2);
+        assertFalse(em.contains(young));
+        assertFalse(em.contains(younger));
+        assertTrue(em.contains(old));
+        assertFalse(memberRepository.findById(young.getId()).isPresent());
+        assertFalse(memberRepository.findById(younger.getId()).isPresent());
+        assertTrue(memberRepository.findById(old.getId()).isPresent());
+    }
+
+    @Test
+    public void saveAllBatchedInCallerTransaction() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        Member other = memberRepository.save(new Member("other", 10, team));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("member" + i, 10, team));
+        }
+
+        //when
+        int saved = memberRepository.saveAllBatched(members, 2);
+
+        //then
+        assertEquals(saved, 5);
+        assertTrue(em.contains(team));
+        assertTrue(em.contains(other));
+        assertFalse(em.contains(members.get(0)));
+        assertFalse(em.contains(members.get(4)));
+    }
+
+    @Test
+    public void importAll() throws Exception {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("member" + i, 400));
+        }
+
+        //when
+        int imported = memberRepository.importAll(members, 2);
+
+        //then
+        assertEquals(imported, 5);
+        for (Member member : memberRepository.findByAge(400, PageRequest.of(0, 10)).getContent()) {
+            assertNotNull(member.getCreateDate());
+            assertNotNull(member.getCreatedBy());
+        }
+    }
+
     @Test
     public void findMemberLazy() throws Exception {
         //given
@@ -192,6 +407,215 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void detectNPlusOne() throws Exception {
+        //given
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("member" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+        // lazy teams as they load without the second-level cache and batch fetching
+        em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        //when
+        try (QueryScope lazy = QueryScope.open("lazy", 10, 3, false)) {
+            touchTeamsOneByOne(memberRepository.findMemberCustom());
+            //then
+            assertEquals(lazy.getStatements(), 4);
+            assertTrue(lazy.isNPlusOneSuspected());
+        }
+        em.clear();
+
+        try (QueryScope fetchJoin = QueryScope.open("fetchJoin", 1, 3, true)) {
+            for (Member member : memberRepository.findMemberFetchJoin()) {
+                member.getTeam().getName();
+            }
+            assertEquals(fetchJoin.getStatements(), 1);
+            assertFalse(fetchJoin.isNPlusOneSuspected());
+        }
+        em.clear();
+
+        try (QueryScope budget = QueryScope.open("budget", 1, 3, true)) {
+            assertThrows(SqlBudgetExceededException.class,
+                    () -> touchTeamsOneByOne(memberRepository.findMemberCustom()));
+        }
+    }
+
+    private void touchTeamsOneByOne(List<Member> members) {
+        BatchFetchQueue batchFetchQueue = em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().getBatchFetchQueue();
+        for (Member member : members) {
+            batchFetchQueue.clear();
+            member.getTeam().getName();
+        }
+    }
+
+    @Test
+    public void batchFetchTeams() throws Exception {
+        //given
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            teams.add(teamRepository.save(new Team("team" + i)));
+        }
+        for (int i = 0; i < 100; i++) {
+            memberRepository.save(new Member("member" + i, 300, teams.get(i % 20)));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        try (QueryScope scope = QueryScope.open("memberTeams", 2, 100, true)) {
+            for (Member member : memberRepository.findPageByAge(300, PageRequest.of(0, 100)).getContent()) {
+                member.getTeam().getName();
+            }
+            //then
+            assertEquals(scope.getStatements(), 2);
+        }
+        em.clear();
+
+        try (QueryScope scope = QueryScope.open("teamMembers", 2, 100, true)) {
+            for (Team team : teamRepository.findAllById(teams.stream().map(Team::getId).toList())) {
+                assertEquals(team.getMembers().size(), 5);
+            }
+            assertEquals(scope.getStatements(), 2);
+        }
+    }
+
+    @Test
+    public void repositoryMetrics() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 500));
+        em.flush();
+        em.clear();
+        Timer timer = meterRegistry.timer("datajpa.repository.invocations",
+                "repository", "MemberRepository", "method", "findUser", "outcome", "success");
+        DistributionSummary rows = meterRegistry.summary("datajpa.repository.rows",
+                "repository", "MemberRepository", "method", "findUser");
+        DistributionSummary statements = meterRegistry.summary("datajpa.repository.statements",
+                "repository", "MemberRepository", "method", "findUser");
+        long count = timer.count();
+        double totalRows = rows.totalAmount();
+        double totalStatements = statements.totalAmount();
+
+        //when
+        memberRepository.findUser("member1", 500);
+
+        //then
+        assertEquals(timer.count(), count + 1);
+        assertEquals(rows.totalAmount(), totalRows + 1);
+        assertEquals(statements.totalAmount(), totalStatements + 1);
+    }
+
+    @Test
+    public void managedEntitiesRecordedOncePerCommit() throws Exception {
+        //given
+        DistributionSummary managed = meterRegistry.summary("datajpa.persistence.context.entities");
+        long commits = managed.count();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when
+        tx.executeWithoutResult(status -> {
+            memberRepository.findUser("member1", 500);
+            memberRepository.findUser("member2", 500);
+            memberRepository.count();
+        });
+
+        //then
+        assertEquals(managed.count(), commits + 1);
+    }
+
+    @Test
+    public void projections() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamProjection"));
+        memberRepository.save(new Member("member1", 700, team));
+        memberRepository.save(new Member("member2", 700));
+        em.flush();
+        em.clear();
+
+        //when
+        Page<MemberSummary> summaries = memberRepository.findByAge(700,
+                PageRequest.of(0, 10, Sort.by("username")), MemberSummary.class);
+        Page<Map<String, Object>> fields = memberRepository.findPageFields(
+                MemberField.parse("username,teamName"), PageRequest.of(0, 2000, Sort.by("username")));
+
+        //then
+        assertEquals(summaries.getTotalElements(), 2);
+        assertEquals(summaries.getContent().get(0).getUsername(), "member1");
+        assertEquals(summaries.getContent().get(0).getAge(), 700);
+        Map<String, Object> row = fields.getContent().stream()
+                .filter(r -> "teamProjection".equals(r.get("teamName")))
+                .findFirst().orElseThrow();
+        assertEquals(row.keySet(), Set.of("username", "teamName"));
+        assertEquals(row.get("username"), "member1");
+        assertThrows(IllegalArgumentException.class, () -> MemberField.parse("username,password"));
+        assertThrows(IllegalArgumentException.class, () -> MemberField.validateSort(Sort.by("teamName")));
+        assertThrows(IllegalArgumentException.class, () -> MemberField.validateSort(Sort.by("password")));
+        MemberField.validateSort(Sort.by("createdBy", "username"));
+    }
+
+    @Test
+    public void fetchPlanPaging() throws Exception {
+        //given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        for (int i = 0; i < 6; i++) {
+            memberRepository.save(new Member("member" + i, 900, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Member> page;
+        try (QueryScope scope = QueryScope.open("fetchPlan", 3, 100, true)) {
+            page = memberRepository.findPageByAgeWith(900, FetchPlan.TEAM_MEMBERS,
+                    PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "username")));
+
+            //then
+            assertEquals(scope.getStatements(), 3);
+        }
+        assertEquals(page.getTotalElements(), 6);
+        assertEquals(page.getContent().stream().map(Member::getUsername).toList(), List.of("member3", "member2"));
+        for (Member member : page.getContent()) {
+            assertTrue(Hibernate.isInitialized(member.getTeam()));
+            assertTrue(Hibernate.isInitialized(member.getTeam().getMembers()));
+            assertEquals(member.getTeam().getMembers().size(), 3);
+        }
+
+        em.clear();
+        Page<Member> plain = memberRepository.findPageByAgeWith(900, FetchPlan.NONE, PageRequest.of(0, 2));
+        assertFalse(Hibernate.isInitialized(plain.getContent().get(0).getTeam()));
+    }
+
+    @Test
+    public void findAllByIdIn() throws Exception {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(memberRepository.save(new Member("member" + i, 1200)).getId());
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        memberRepository.findAllByIdIn(ids.subList(0, 1));
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        //when
+        List<Member> members = memberRepository.findAllByIdIn(ids.subList(0, 3));
+        memberRepository.findAllByIdIn(ids.subList(0, 5));
+        memberRepository.findAllByIdIn(ids);
+
+        //then
+        assertEquals(members.stream().map(Member::getId).sorted().toList(), ids.subList(0, 3));
+        assertEquals(statistics.getQueryPlanCacheHitCount(), hits + 3);
+        assertEquals(statistics.getQueryPlanCacheMissCount(), misses);
+    }
+
     @Test
     public void callCustom() throws Exception {
         //given
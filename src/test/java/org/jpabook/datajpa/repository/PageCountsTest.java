@@ -0,0 +1,173 @@
+package org.jpabook.datajpa.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jpabook.datajpa.entity.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class PageCountsTest {
+
+    @Autowired
+    PageCounts pageCounts;
+
+    @Autowired
+    PageCountProperties properties;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager em;
+
+    final AtomicInteger counts = new AtomicInteger();
+    final LongSupplier countQuery = () -> {
+        counts.incrementAndGet();
+        return 42;
+    };
+
+    @AfterEach
+    public void resetModes() {
+        properties.getMethods().remove("cachedTest");
+        properties.getMethods().remove("estimatedTest");
+        properties.getMethods().remove("committedTest");
+    }
+
+    @Test
+    public void cachedUntilTableChanges() throws Exception {
+        //given
+        properties.getMethods().put("cachedTest", PageCountMode.CACHED);
+        pageCounts.invalidate("member");
+
+        //when
+        Page<String> first = pageCounts.page("cachedTest", "member", 1, rows(3), PageRequest.of(0, 2), countQuery);
+        Page<String> second = pageCounts.page("cachedTest", "member", 1, rows(3), PageRequest.of(0, 2), countQuery);
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+        pageCounts.page("cachedTest", "member", 1, rows(3), PageRequest.of(0, 2), countQuery);
+
+        //then
+        assertEquals(first.getTotalElements(), 42);
+        assertEquals(second.getTotalElements(), 42);
+        assertEquals(counts.get(), 2);
+        assertEquals(count("cachedTest", "executed"), 2.0);
+        assertEquals(count("cachedTest", "avoided"), 1.0);
+    }
+
+    @Test
+    public void invalidatedAgainAfterCommit() throws Exception {
+        //given
+        properties.getMethods().put("committedTest", PageCountMode.CACHED);
+        pageCounts.invalidate("member");
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when: a total cached after the write but before the commit
+        Long id = tx.execute(status -> {
+            Long saved = memberRepository.save(new Member("member1", 10)).getId();
+            em.flush();
+            pageCounts.page("committedTest", "member", 1, rows(3), PageRequest.of(0, 2), countQuery);
+            return saved;
+        });
+        pageCounts.page("committedTest", "member", 1, rows(3), PageRequest.of(0, 2), countQuery);
+        tx.executeWithoutResult(status -> memberRepository.deleteById(id));
+
+        //then
+        assertEquals(counts.get(), 2);
+        assertEquals(count("committedTest", "avoided"), 0.0);
+    }
+
+    @Test
+    public void emptyPagePastEndKeepsTotal() throws Exception {
+        //when
+        Page<String> page = pageCounts.page("pastEndTest", "member", 1, rows(0), PageRequest.of(30, 2), countQuery);
+
+        //then
+        assertEquals(page.getTotalElements(), 42);
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(counts.get(), 1);
+    }
+
+    @Test
+    public void estimatedOnlyWithoutPredicate() throws Exception {
+        //given
+        properties.getMethods().put("estimatedTest", PageCountMode.ESTIMATED);
+
+        //when
+        Page<String> unfiltered = pageCounts.page("estimatedTest", "member", PageCounts.ALL, rows(3),
+                PageRequest.of(0, 2), countQuery);
+        Page<String> filtered = pageCounts.page("estimatedTest", "member", 1, rows(3),
+                PageRequest.of(0, 2), countQuery);
+
+        //then
+        assertEquals(counts.get(), 1);
+        assertTrue(unfiltered.getTotalElements() >= 3);
+        assertEquals(filtered.getTotalElements(), 42);
+        assertEquals(count("estimatedTest", "avoided"), 1.0);
+        assertEquals(count("estimatedTest", "executed"), 1.0);
+    }
+
+    @Test
+    public void lastPageAvoidsCount() throws Exception {
+        //when
+        Page<String> page = pageCounts.page("lastPageTest", "member", 1, rows(1), PageRequest.of(2, 2), countQuery);
+
+        //then
+        assertEquals(page.getTotalElements(), 5);
+        assertEquals(counts.get(), 0);
+        assertEquals(count("lastPageTest", "avoided"), 1.0);
+    }
+
+    @Test
+    public void sliceWithoutTotal() throws Exception {
+        //given
+        for (int i = 0; i < 3; i++) {
+            memberRepository.save(new Member("member" + i, -10));
+        }
+
+        //when
+        Slice<Member> first = memberRepository.findSliceByAge(-10, PageRequest.of(0, 2));
+        Slice<Member> last = memberRepository.findSliceByAge(-10, PageRequest.of(1, 2));
+
+        //then
+        assertEquals(first.getNumberOfElements(), 2);
+        assertTrue(first.hasNext());
+        assertEquals(last.getNumberOfElements(), 1);
+        assertFalse(last.hasNext());
+    }
+
+    private List<String> rows(int size) {
+        return IntStream.range(0, size).mapToObj(i -> "row" + i).toList();
+    }
+
+    private double count(String method, String outcome) {
+        return meterRegistry.counter("datajpa.page.count.queries", "method", method, "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,117 @@
+package org.jpabook.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void secondLevelCache() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        teamRepository.findById(team.getId());
+        em.clear();
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        //when
+        Team cached = teamRepository.findById(team.getId()).get();
+
+        //then
+        assertEquals(cached.getName(), "teamA");
+        assertEquals(statistics.getSecondLevelCacheHitCount(), hits + 1);
+    }
+
+    @Test
+    public void bulkUpdateEvictsMemberCache() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("member1", 20));
+        em.flush();
+        em.clear();
+        memberRepository.findById(member.getId());
+        em.clear();
+
+        //when
+        memberRepository.bulkAgePlus(20);
+
+        //then
+        assertFalse(em.getEntityManagerFactory().getCache().contains(Member.class, member.getId()));
+        assertEquals(memberRepository.findById(member.getId()).get().getAge(), 21);
+    }
+
+    @Test
+    public void bulkDeleteEvictsOnlyTouchedRows() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        Member young = memberRepository.save(new Member("young", 10, team));
+        Member old = memberRepository.save(new Member("old", 90, team));
+        em.flush();
+        em.clear();
+        memberRepository.findById(young.getId());
+        memberRepository.findById(old.getId());
+        teamRepository.findById(team.getId()).get().getMembers().size();
+        em.clear();
+        Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        String members = Team.class.getName() + ".members";
+
+        //when
+        memberRepository.bulkDeleteByAgeLessThan(20, 1);
+
+        //then
+        assertFalse(cache.contains(Member.class, young.getId()));
+        assertTrue(cache.contains(Member.class, old.getId()));
+        assertTrue(cache.contains(Team.class, team.getId()));
+        assertFalse(cache.containsCollection(members, team.getId()));
+    }
+
+    @Test
+    public void bulkDeleteEmptyTeams() throws Exception {
+        //given
+        Team empty = teamRepository.save(new Team("empty"));
+        Team nonEmpty = teamRepository.save(new Team("nonEmpty"));
+        memberRepository.save(new Member("member1", 10, nonEmpty));
+        em.flush();
+        // other empty teams committed to the shared database are deleted too, inside this rolled-back test
+        long emptyTeams = ((Number) em.createNativeQuery("SELECT COUNT(*) FROM team t" +
+                " WHERE NOT EXISTS (SELECT 1 FROM member m WHERE m.team_id = t.team_id)").getSingleResult()).longValue();
+
+        //when
+        int deleted = teamJpaRepository.bulkDeleteEmptyTeams(1);
+
+        //then
+        assertEquals(deleted, (int) emptyTeams);
+        assertFalse(em.contains(empty));
+        assertFalse(teamRepository.findById(empty.getId()).isPresent());
+        assertTrue(teamRepository.findById(nonEmpty.getId()).isPresent());
+    }
+}
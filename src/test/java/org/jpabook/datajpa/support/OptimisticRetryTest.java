@@ -0,0 +1,125 @@
+package org.jpabook.datajpa.support;
+
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.jpabook.datajpa.repository.TeamRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "data-jpa.retry.max-attempts=2")
+class OptimisticRetryTest {
+
+    @Autowired
+    OptimisticRetry optimisticRetry;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void retryOnConflict() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("retryTeam"));
+        Long id = memberRepository.save(new Member("retry1", 800)).getId();
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        Long version = optimisticRetry.execute("test", () -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                concurrentUpdate(id);
+            }
+            member.changeTeam(teamRepository.findById(team.getId()).orElseThrow());
+            return member.getVersion();
+        });
+
+        //then
+        Member member = memberRepository.findById(id).orElseThrow();
+        assertEquals(attempts.get(), 2);
+        assertEquals(member.getVersion(), version + 1);
+        assertEquals(member.getUsername(), "retry1-renamed");
+        assertEquals(member.getTeam().getId(), team.getId());
+
+        memberRepository.delete(member);
+        teamRepository.delete(team);
+    }
+
+    @Test
+    public void giveUpAfterMaxAttempts() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("retry2", 800)).getId();
+
+        //when
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.execute("test", () -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            concurrentUpdate(id);
+            member.setAge(member.getAge() + 1);
+            return null;
+        }));
+
+        //then
+        assertEquals(memberRepository.findById(id).orElseThrow().getAge(), 800);
+        memberRepository.deleteById(id);
+    }
+
+    @Test
+    public void retryBypassesStaleSecondLevelCache() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("retry3", 800)).getId();
+        memberRepository.findById(id);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when: another node updates the row, leaving this node's cached member stale
+        optimisticRetry.execute("test", () -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                remoteUpdate(id);
+            }
+            member.setAge(member.getAge() + 1);
+            return null;
+        });
+
+        //then
+        Member member = memberRepository.findById(id).orElseThrow();
+        assertEquals(attempts.get(), 2);
+        assertEquals(member.getUsername(), "retry3-remote");
+        assertEquals(member.getAge(), 801);
+        memberRepository.deleteById(id);
+    }
+
+    private void remoteUpdate(Long id) {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE member SET username = username || '-remote', version = version + 1 WHERE member_id = ?", id));
+    }
+
+    private void concurrentUpdate(Long id) {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            member.setUsername(member.getUsername() + "-renamed");
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package org.jpabook.datajpa.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.OutboxEvent;
+import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.jpabook.datajpa.repository.TeamRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class OutboxTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    OptimisticRetry optimisticRetry;
+
+    @Autowired
+    OutboxRelay outboxRelay;
+
+    @Autowired
+    InMemoryOutboxSink sink;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private Long memberId;
+    private Long teamId;
+
+    @AfterEach
+    void cleanUp() {
+        if (memberId != null) {
+            memberRepository.deleteById(memberId);
+        }
+        if (teamId != null) {
+            teamRepository.deleteById(teamId);
+        }
+        drain();
+    }
+
+    @Test
+    public void relayMemberEvents() throws Exception {
+        //given
+        drain();
+        sink.events.clear();
+        Team team = teamRepository.save(new Team("outboxTeam"));
+        teamId = team.getId();
+        Long id = memberRepository.save(new Member("outbox1", 1300)).getId();
+        memberId = id;
+        optimisticRetry.execute("changeTeam", () -> {
+            memberRepository.findById(id).orElseThrow()
+                    .changeTeam(teamRepository.findById(team.getId()).orElseThrow());
+            return null;
+        });
+        Integer bulkRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM member WHERE age >= 1300", Integer.class);
+        memberRepository.bulkAgePlus(1300);
+
+        //when
+        drain();
+
+        //then
+        List<String> memberEvents = sink.events.stream()
+                .filter(e -> e.getAggregateType().equals("Member") && id.equals(e.getAggregateId()))
+                .map(OutboxEvent::getEventType)
+                .toList();
+        assertEquals(memberEvents, List.of("MemberCreated", "MemberUpdated"));
+        for (OutboxEvent event : sink.events) {
+            if (id.equals(event.getAggregateId()) && event.getEventType().equals("MemberUpdated")) {
+                assertEquals(payload(event).get("teamId").asLong(), team.getId());
+            }
+        }
+        List<OutboxEvent> bulk = sink.events.stream()
+                .filter(e -> e.getEventType().equals("MemberBulkUpdate"))
+                .toList();
+        assertEquals(bulk.size(), 1);
+        JsonNode bulkPayload = payload(bulk.get(0));
+        assertEquals(bulkPayload.get("minAge").asInt(), 1300);
+        assertEquals(bulkPayload.get("rows").asInt(), bulkRows);
+        assertEquals(outboxRelay.relayBatch(), 0);
+    }
+
+    private JsonNode payload(OutboxEvent event) throws Exception {
+        return objectMapper.readTree(event.getPayload());
+    }
+
+    private void drain() {
+        int published;
+        do {
+            published = outboxRelay.relayBatch();
+        } while (published > 0);
+    }
+
+    static class InMemoryOutboxSink implements OutboxSink {
+
+        final List<OutboxEvent> events = new ArrayList<>();
+
+        @Override
+        public synchronized void publish(List<OutboxEvent> batch) {
+            events.addAll(batch);
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        @Primary
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.jpabook.datajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "data-jpa.persistence-context.max-entities=5",
+        "data-jpa.persistence-context.action=fail"
+})
+@Transactional
+class PersistenceContextGuardTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PersistenceContextProperties properties;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    void restoreAction() {
+        properties.setAction(PersistenceContextProperties.Action.FAIL);
+    }
+
+    @Test
+    public void failOverLimit() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("guard" + i, 1100));
+        }
+
+        //when
+        //then
+        assertThrows(PersistenceContextLimitExceededException.class,
+                () -> memberRepository.save(new Member("guard5", 1100)));
+    }
+
+    @Test
+    public void flushMetrics() throws Exception {
+        //given
+        Timer flush = meterRegistry.timer("datajpa.session.flush");
+        long flushes = flush.count();
+        memberRepository.save(new Member("guard", 1100));
+
+        //when
+        em.flush();
+
+        //then
+        assertEquals(flush.count(), flushes + 1);
+    }
+
+    @Test
+    public void warnOncePerBreach() throws Exception {
+        //given
+        properties.setAction(PersistenceContextProperties.Action.WARN);
+        Counter exceeded = meterRegistry.counter("datajpa.persistence.context.exceeded", "action", "warn");
+        DistributionSummary managed = meterRegistry.summary("datajpa.persistence.context.managed");
+        double breaches = exceeded.count();
+        long recorded = managed.count();
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            memberRepository.save(new Member("guard" + i, 1100));
+        }
+        em.flush();
+        em.clear();
+        memberRepository.count();
+        for (int i = 8; i < 14; i++) {
+            memberRepository.save(new Member("guard" + i, 1100));
+        }
+
+        //then
+        assertEquals(exceeded.count(), breaches + 2);
+        assertEquals(managed.count(), recorded + 15);
+    }
+
+    @Test
+    public void flushClearOverLimit() throws Exception {
+        //given
+        properties.setAction(PersistenceContextProperties.Action.FLUSH_CLEAR);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(memberRepository.save(new Member("guard" + i, 1100)));
+        }
+
+        //when
+        memberRepository.save(new Member("guard5", 1100));
+
+        //then
+        assertFalse(em.contains(members.get(0)));
+        assertEquals(memberRepository.findByAge(1100, Pageable.unpaged()).getContent().size(), 6);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void flushClearSkippedInReadOnlyTransaction() throws Exception {
+        //given
+        properties.setAction(PersistenceContextProperties.Action.FLUSH_CLEAR);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            members.add(memberRepository.save(new Member("guard" + i, 1100)));
+        }
+
+        //when
+        memberRepository.save(new Member("guard5", 1100));
+
+        //then
+        assertTrue(em.contains(members.get(0)));
+    }
+}
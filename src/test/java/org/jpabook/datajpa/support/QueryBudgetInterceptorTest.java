@@ -0,0 +1,67 @@
+package org.jpabook.datajpa.support;
+
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcOffload jdbcOffload;
+
+    @Test
+    public void offloadedStatementsCountTowardsCallerScope() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("offload1", 1500)).getId();
+
+        //when
+        try (QueryScope scope = QueryScope.open("offload", 10, 10, false)) {
+            String username = jdbcOffload.read(() -> memberRepository.findUsernameById(id).orElseThrow()).block();
+
+            //then
+            assertEquals(username, "offload1");
+            assertEquals(scope.getStatements(), 1);
+        }
+        memberRepository.deleteById(id);
+    }
+
+    @Test
+    public void asyncRequestReleasesScope() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("offload2", 1500)).getId();
+
+        //when
+        MvcResult started = mockMvc.perform(get("/rx/members/{id}", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertNull(QueryScope.current());
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("offload2"));
+
+        //then
+        assertNull(QueryScope.current());
+        memberRepository.deleteById(id);
+    }
+}
@@ -0,0 +1,134 @@
+package org.jpabook.datajpa.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTest {
+
+    @Test
+    public void routeReadOnlyToReplica() throws Exception {
+        //given
+        DataSource primary = node("primary");
+        DataSource replica = node("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, List.of(replica), ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ZERO));
+
+        //when
+        String read = readOnly(dataSource).execute(status -> nodeName(dataSource));
+        String write = readWrite(dataSource).execute(status -> nodeName(dataSource));
+
+        //then
+        assertEquals(read, "replica");
+        assertEquals(write, "primary");
+    }
+
+    @Test
+    public void readYourWrites() throws Exception {
+        //given
+        DataSource primary = node("primary");
+        DataSource replica = node("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, List.of(replica), ReplicaRoutingDataSource.Selection.LEAST_LATENCY, Duration.ofMinutes(1)));
+
+        String before;
+        String after;
+
+        //when
+        try (ClientWrites client = ClientWrites.open(0, at -> {
+        })) {
+            before = readOnly(dataSource).execute(status -> nodeName(dataSource));
+            readWrite(dataSource).executeWithoutResult(status ->
+                    new JdbcTemplate(dataSource).update("UPDATE node SET name = name"));
+            after = readOnly(dataSource).execute(status -> nodeName(dataSource));
+        }
+
+        //then
+        assertEquals(before, "replica");
+        assertEquals(after, "primary");
+    }
+
+    @Test
+    public void readYourWritesPerClient() throws Exception {
+        //given
+        DataSource primary = node("primary");
+        DataSource replica = node("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, List.of(replica), ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1)));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+        MockHttpServletResponse clientA = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), clientA, (request, response) ->
+                readWrite(dataSource).executeWithoutResult(status ->
+                        new JdbcTemplate(dataSource).update("UPDATE node SET name = name")));
+
+        //when
+        String clientB = readThrough(filter, new MockHttpServletRequest(), dataSource);
+        MockHttpServletRequest nextFromClientA = new MockHttpServletRequest();
+        nextFromClientA.setCookies(clientA.getCookie(ReadYourWritesFilter.COOKIE));
+        String clientAAgain = readThrough(filter, nextFromClientA, dataSource);
+
+        //then
+        assertEquals(clientB, "replica");
+        assertEquals(clientAAgain, "primary");
+    }
+
+    @Test
+    public void readWriteTransactionWithoutWrites() throws Exception {
+        //given
+        DataSource primary = node("primary");
+        DataSource replica = node("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, List.of(replica), ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1)));
+
+        //when
+        String write = readWrite(dataSource).execute(status -> nodeName(dataSource));
+        String after = readOnly(dataSource).execute(status -> nodeName(dataSource));
+
+        //then
+        assertEquals(write, "primary");
+        assertEquals(after, "replica");
+    }
+
+    private DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String readThrough(ReadYourWritesFilter filter, MockHttpServletRequest request, DataSource dataSource)
+            throws Exception {
+        AtomicReference<String> node = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+                node.set(readOnly(dataSource).execute(status -> nodeName(dataSource))));
+        return node.get();
+    }
+
+    private String nodeName(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private TransactionTemplate readOnly(DataSource dataSource) {
+        TransactionTemplate template = readWrite(dataSource);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private TransactionTemplate readWrite(DataSource dataSource) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+}
@@ -0,0 +1,69 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "data-jpa.routing.enabled=true",
+        "data-jpa.routing.read-your-writes-window=0s",
+        "data-jpa.routing.replicas[0].url=jdbc:h2:tcp://localhost/~/datajpa;QUERY_CACHE_SIZE=64;IFEXISTS=TRUE"
+})
+class ReplicaRoutingJpaTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void routePerTransactionUnderOpenInView() throws Exception {
+        //given: one EntityManager for the whole request, as open-in-view binds it
+        EntityManager requestEntityManager = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(requestEntityManager));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Long id = null;
+        try {
+            //when
+            String readUrl = readOnly.execute(status -> {
+                memberRepository.count();
+                return connectionUrl();
+            });
+            String writeUrl = readWrite.execute(status -> connectionUrl());
+            id = readWrite.execute(status -> memberRepository.save(new Member("routed", 1510)).getId());
+
+            //then
+            assertTrue(readUrl.contains("IFEXISTS"));
+            assertFalse(writeUrl.contains("IFEXISTS"));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            requestEntityManager.close();
+        }
+        memberRepository.deleteById(id);
+    }
+
+    private String connectionUrl() {
+        return em.unwrap(Session.class).doReturningWork(connection -> connection.getMetaData().getURL());
+    }
+}
@@ -0,0 +1,50 @@
+package org.jpabook.datajpa.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "data-jpa.slow-query.threshold=0ms",
+        "data-jpa.slow-query.explain=true"
+})
+@Transactional
+class SlowQueryListenerTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    SlowQueryLog slowQueryLog;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void recordSlowQueryWithPlan() throws Exception {
+        //given
+        memberRepository.save(new Member("slow1", 600));
+        em.flush();
+        em.clear();
+        slowQueryLog.clear();
+
+        //when
+        memberRepository.findUser("slow1", 600);
+
+        //then
+        SlowQuery slowQuery = slowQueryLog.entries().get(0);
+        assertEquals(slowQuery.origin(), "MemberRepository.findUser");
+        assertTrue(slowQuery.sql().contains("'slow1'"));
+        assertNotNull(slowQuery.plan());
+        assertTrue(slowQuery.plan().toLowerCase().contains("member"));
+    }
+}
@@ -0,0 +1,195 @@
+package org.jpabook.datajpa.support;
+
+import org.jpabook.datajpa.dto.TeamStatsDto;
+import org.jpabook.datajpa.entity.Member;
+import org.jpabook.datajpa.entity.Team;
+import org.jpabook.datajpa.repository.MemberRepository;
+import org.jpabook.datajpa.repository.TeamJpaRepository;
+import org.jpabook.datajpa.repository.TeamRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+class TeamStatsMaintainerTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Autowired
+    OptimisticRetry optimisticRetry;
+
+    @Autowired
+    TeamStatsMaintainer teamStatsMaintainer;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    final List<Long> memberIds = new ArrayList<>();
+    final List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() {
+        memberIds.forEach(id -> memberRepository.findById(id).ifPresent(memberRepository::delete));
+        teamIds.forEach(id -> teamRepository.findById(id).ifPresent(teamRepository::delete));
+    }
+
+    @Test
+    public void maintainIncrementally() throws Exception {
+        //given
+        Team teamA = team("statsA");
+        Team teamB = team("statsB");
+        assertStats(teamA, 0, 0);
+        Member member1 = member("stats1", 1400, teamA);
+        Member member2 = member("stats2", 1410, teamA);
+        member("stats3", 1420, teamB);
+        assertStats(teamA, 2, 2810);
+        assertStats(teamB, 1, 1420);
+
+        //when
+        optimisticRetry.execute("changeTeam", () -> {
+            memberRepository.findById(member1.getId()).orElseThrow()
+                    .changeTeam(teamRepository.findById(teamB.getId()).orElseThrow());
+            return null;
+        });
+        memberRepository.bulkAgePlus(1405);
+        memberRepository.deleteById(member2.getId());
+
+        //then
+        assertStats(teamA, 0, 0);
+        assertStats(teamB, 2, 1400 + 1421);
+        List<TeamStatsDto> incremental = List.of(stats(teamA), stats(teamB));
+        teamStatsMaintainer.rebuild(List.of(teamA.getId(), teamB.getId()));
+        assertEquals(List.of(stats(teamA), stats(teamB)), incremental);
+
+        teamRepository.deleteById(teamA.getId());
+        assertFalse(teamRepository.findStatsByTeamId(teamA.getId()).isPresent());
+    }
+
+    @Test
+    public void recomputeMissingRow() throws Exception {
+        //given
+        Team team = team("statsMissing");
+        member("missing1", 1430, team);
+        jdbcTemplate.update("DELETE FROM team_stats WHERE team_id = ?", team.getId());
+
+        //when
+        member("missing2", 1440, team);
+
+        //then
+        assertStats(team, 2, 2870);
+    }
+
+    @Test
+    public void rollbackLeavesStatsUnchanged() throws Exception {
+        //given
+        Team team = team("statsRollback");
+        member("rollback1", 1450, team);
+
+        //when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("rollback2", 1460, teamRepository.findById(team.getId()).orElseThrow()));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+        member("rollback3", 1470, team);
+
+        //then
+        assertStats(team, 2, 1450 + 1470);
+    }
+
+    @Test
+    public void bulkReassignTeam() throws Exception {
+        //given
+        Team teamA = team("reassignA");
+        Team teamB = team("reassignB");
+        member("reassign1", 1480, teamA);
+        member("reassign2", 1481, teamA);
+        member("reassign3", 1482, teamB);
+
+        //when
+        memberRepository.bulkReassignTeam(teamA.getId(), teamB.getId(), 1);
+
+        //then
+        assertStats(teamA, 0, 0);
+        assertStats(teamB, 3, 1480 + 1481 + 1482);
+    }
+
+    @Test
+    public void bulkDeleteByAgeLessThan() throws Exception {
+        //given
+        Team team = team("deleteByAge");
+        member("young", 1490, team);
+        member("old", 1499, team);
+
+        //when: rolled back, the statement deletes every younger member in the shared database
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.bulkDeleteByAgeLessThan(1495, 1);
+
+            //then
+            assertStats(team, 1, 1499);
+            status.setRollbackOnly();
+        });
+        assertStats(team, 2, 1490 + 1499);
+    }
+
+    @Test
+    public void bulkDeleteEmptyTeams() throws Exception {
+        //given
+        Team empty = team("statsEmpty");
+        Team nonEmpty = team("statsNonEmpty");
+        member("keeper", 1500, nonEmpty);
+
+        //when: rolled back, the statement deletes every empty team in the shared database
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            teamJpaRepository.bulkDeleteEmptyTeams(1);
+
+            //then
+            assertFalse(teamRepository.findStatsByTeamId(empty.getId()).isPresent());
+            assertStats(nonEmpty, 1, 1500);
+            status.setRollbackOnly();
+        });
+        assertStats(empty, 0, 0);
+    }
+
+    private Team team(String name) {
+        Team team = teamRepository.save(new Team(name));
+        teamIds.add(0, team.getId());
+        return team;
+    }
+
+    private Member member(String username, int age, Team team) {
+        Member member = memberRepository.save(new Member(username, age, team));
+        memberIds.add(member.getId());
+        return member;
+    }
+
+    private void assertStats(Team team, long memberCount, long ageSum) {
+        TeamStatsDto stats = stats(team);
+        assertEquals(stats.getMemberCount(), memberCount);
+        assertEquals(stats.getAgeSum(), ageSum);
+    }
+
+    private TeamStatsDto stats(Team team) {
+        return teamRepository.findStatsByTeamId(team.getId()).orElseThrow();
+    }
+}